@@ -0,0 +1,540 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+import it.unimi.dsi.fastutil.ints.AbstractInt2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterable;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+/**
+ * An {@link Int2ObjectMap} which chooses its representation by the density of
+ * its keys: While the keys are non-negative and the greatest key is less than
+ * {@link #DENSE_RATIO} times the number of entries, the values are stored in a
+ * flat array indexed by key together with a bitset of the occupied keys;
+ * Otherwise, they are stored in an {@link Int2ObjectOpenHashMap}. The map
+ * converts between the two automatically, so that a single large key does not
+ * allocate an array slot for every smaller key and removing an entry never
+ * shifts any other entries.
+ *
+ * @param <V>
+ *            The type of the values.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class AdaptiveInt2ObjectMap<V> extends AbstractInt2ObjectMap<V> {
+
+	/**
+	 * An iterator over the entries of the dense representation.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class DenseEntryIterator extends AbstractObjectIterator<Int2ObjectMap.Entry<V>> {
+
+		/**
+		 * The key of the last entry returned or {@code -1} if there is none.
+		 */
+		private int last = -1;
+
+		/**
+		 * The key of the next entry or {@code -1} if there is none.
+		 */
+		private int next = nextOccupied(0);
+
+		@Override
+		public boolean hasNext() {
+			return next >= 0;
+		}
+
+		@Override
+		@SuppressWarnings("unchecked")
+		public Int2ObjectMap.Entry<V> next() {
+			if (next < 0) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = nextOccupied(next + 1);
+			return new BasicEntry<>(last, (V) denseValues[last]);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			// Do not shrink the array while iterating over it
+			removeDense(last);
+			last = -1;
+		}
+	}
+
+	/**
+	 * A view of the entries of the map.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class EntrySet extends AbstractObjectSet<Int2ObjectMap.Entry<V>> {
+
+		@Override
+		public void clear() {
+			AdaptiveInt2ObjectMap.this.clear();
+		}
+
+		@Override
+		public boolean contains(final Object o) {
+			final boolean result;
+			if (o instanceof java.util.Map.Entry<?, ?>) {
+				final java.util.Map.Entry<?, ?> entry = (java.util.Map.Entry<?, ?>) o;
+				final Object key = entry.getKey();
+				result = key instanceof Integer && containsKey(((Integer) key).intValue())
+						&& Objects.equals(get(((Integer) key).intValue()), entry.getValue());
+			} else {
+				result = false;
+			}
+			return result;
+		}
+
+		@Override
+		public ObjectIterator<Int2ObjectMap.Entry<V>> iterator() {
+			return sparse == null ? new DenseEntryIterator() : sparse.int2ObjectEntrySet().iterator();
+		}
+
+		@Override
+		public int size() {
+			return AdaptiveInt2ObjectMap.this.size();
+		}
+	}
+
+	/**
+	 * The maximum ratio of the length of the dense array to the number of
+	 * entries in the map; The map only changes back from the sparse
+	 * representation once the ratio is at most half this.
+	 */
+	public static final int DENSE_RATIO = 4;
+
+	private static final int MIN_DENSE_LENGTH = 16;
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 3893506215736347217L;
+
+	private static int maxDenseLength(final int size) {
+		return (int) Math.min(Math.max(MIN_DENSE_LENGTH, (long) DENSE_RATIO * size), Integer.MAX_VALUE - 8);
+	}
+
+	/**
+	 * The number of entries in the dense representation.
+	 */
+	private int denseSize;
+
+	/**
+	 * The values indexed by key in the dense representation, or {@code null}
+	 * if the map is sparse.
+	 */
+	private Object[] denseValues;
+
+	/**
+	 * A bitset of the keys in the dense representation.
+	 */
+	private long[] occupied;
+
+	/**
+	 * The map of entries in the sparse representation, or {@code null} if the
+	 * map is dense.
+	 */
+	private Int2ObjectOpenHashMap<V> sparse;
+
+	/**
+	 * An upper bound of the greatest key in the sparse representation.
+	 */
+	private int sparseMaxKey;
+
+	/**
+	 * A lower bound of the least key in the sparse representation.
+	 */
+	private int sparseMinKey;
+
+	/**
+	 * Creates a new, empty map.
+	 */
+	public AdaptiveInt2ObjectMap() {
+		allocateDense(MIN_DENSE_LENGTH);
+	}
+
+	/**
+	 * Creates a new map containing the entries of a given map.
+	 *
+	 * @param m
+	 *            The {@link Int2ObjectMap} to copy the entries of.
+	 */
+	public AdaptiveInt2ObjectMap(final Int2ObjectMap<? extends V> m) {
+		this();
+		for (final Int2ObjectMap.Entry<? extends V> entry : m.int2ObjectEntrySet()) {
+			put(entry.getIntKey(), entry.getValue());
+		}
+	}
+
+	@Override
+	public void clear() {
+		sparse = null;
+		allocateDense(MIN_DENSE_LENGTH);
+	}
+
+	@Override
+	public boolean containsKey(final int k) {
+		return sparse == null ? isDenseOccupied(k) : sparse.containsKey(k);
+	}
+
+	@Override
+	public void defaultReturnValue(final V rv) {
+		super.defaultReturnValue(rv);
+		if (sparse != null) {
+			sparse.defaultReturnValue(rv);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V get(final int k) {
+		final V result;
+		if (sparse == null) {
+			result = isDenseOccupied(k) ? (V) denseValues[k] : defRetValue;
+		} else {
+			result = sparse.get(k);
+		}
+		return result;
+	}
+
+	@Override
+	public ObjectSet<Int2ObjectMap.Entry<V>> int2ObjectEntrySet() {
+		return new EntrySet();
+	}
+
+	/**
+	 * @return {@code true} iff the values are currently stored in a flat array
+	 *         indexed by key.
+	 */
+	public boolean isDense() {
+		return sparse == null;
+	}
+
+	@Override
+	public V put(final int k, final V v) {
+		V result = defRetValue;
+		if (sparse == null) {
+			if (k >= 0 && k < denseValues.length) {
+				result = putDense(k, v);
+			} else if (k >= 0 && k < maxDenseLength(denseSize + 1)) {
+				final int newLength = (int) Math.min(Math.max(k + 1L, denseValues.length * 2L),
+						maxDenseLength(denseSize + 1));
+				denseValues = Arrays.copyOf(denseValues, newLength);
+				occupied = Arrays.copyOf(occupied, newLength + 63 >>> 6);
+				putDense(k, v);
+			} else {
+				toSparse(denseSize + 1);
+				result = putSparse(k, v);
+			}
+		} else {
+			result = putSparse(k, v);
+		}
+		return result;
+	}
+
+	/**
+	 * Puts the entries of parallel arrays of keys and values into the map,
+	 * choosing the representation and sizing it once for all of them and then
+	 * writing each entry directly into it.
+	 *
+	 * @param keys
+	 *            The keys to put.
+	 * @param values
+	 *            The value for each key.
+	 * @throws IllegalArgumentException
+	 *             If the arrays are of different lengths.
+	 */
+	public void putAll(final int[] keys, final V[] values) {
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException(
+					String.format("Key array length (%d) does not equal value array length (%d).", keys.length,
+							values.length));
+		}
+		int minKey = Integer.MAX_VALUE;
+		int maxKey = Integer.MIN_VALUE;
+		for (final int k : keys) {
+			minKey = Math.min(minKey, k);
+			maxKey = Math.max(maxKey, k);
+		}
+		if (prepareBulkPut(minKey, maxKey, keys.length)) {
+			for (int i = 0; i < keys.length; ++i) {
+				putDense(keys[i], values[i]);
+			}
+		} else {
+			for (int i = 0; i < keys.length; ++i) {
+				sparse.put(keys[i], values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Puts the entries of a given map into this map; If the given map is an
+	 * {@link Int2ObjectMap}, its keys are read without boxing and the
+	 * representation is chosen and sized once for all of its entries.
+	 */
+	@Override
+	@SuppressWarnings("unchecked")
+	public void putAll(final Map<? extends Integer, ? extends V> m) {
+		if (m instanceof Int2ObjectMap<?>) {
+			// The entries are only read, so they can be treated as having the
+			// value type of this map
+			final Int2ObjectMap<V> cast = (Int2ObjectMap<V>) m;
+			final ObjectSet<Int2ObjectMap.Entry<V>> entries = cast.int2ObjectEntrySet();
+			// Fast entry sets reuse a single entry object during iteration
+			final ObjectIterable<Int2ObjectMap.Entry<V>> iterable = entries instanceof Int2ObjectMap.FastEntrySet<?>
+					? ((Int2ObjectMap.FastEntrySet<V>) entries)::fastIterator : entries;
+			int minKey = Integer.MAX_VALUE;
+			int maxKey = Integer.MIN_VALUE;
+			for (final Int2ObjectMap.Entry<V> entry : iterable) {
+				final int k = entry.getIntKey();
+				minKey = Math.min(minKey, k);
+				maxKey = Math.max(maxKey, k);
+			}
+			if (prepareBulkPut(minKey, maxKey, cast.size())) {
+				for (final Int2ObjectMap.Entry<V> entry : iterable) {
+					putDense(entry.getIntKey(), entry.getValue());
+				}
+			} else {
+				for (final Int2ObjectMap.Entry<V> entry : iterable) {
+					sparse.put(entry.getIntKey(), entry.getValue());
+				}
+			}
+		} else {
+			super.putAll(m);
+		}
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public V remove(final int k) {
+		V result = defRetValue;
+		if (sparse == null) {
+			if (isDenseOccupied(k)) {
+				result = (V) denseValues[k];
+				removeDense(k);
+				if (denseValues.length > maxDenseLength(denseSize) * 2) {
+					shrinkDense();
+				}
+			}
+		} else {
+			result = sparse.remove(k);
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return sparse == null ? denseSize : sparse.size();
+	}
+
+	private void allocateDense(final int length) {
+		denseValues = new Object[length];
+		occupied = new long[length + 63 >>> 6];
+		denseSize = 0;
+	}
+
+	private boolean isDenseOccupied(final int k) {
+		return k >= 0 && k < denseValues.length && (occupied[k >>> 6] & 1L << k) != 0L;
+	}
+
+	private int nextOccupied(final int k) {
+		int result = -1;
+		int wordIdx = k >>> 6;
+		if (wordIdx < occupied.length) {
+			long word = occupied[wordIdx] & -1L << k;
+			while (word == 0L && ++wordIdx < occupied.length) {
+				word = occupied[wordIdx];
+			}
+			if (word != 0L) {
+				result = (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Chooses the representation for putting a number of entries with keys in
+	 * a given range once from the range and the number of entries, and grows
+	 * it to hold all of them so that they can be written directly into it.
+	 *
+	 * @param minKey
+	 *            The least key to be put.
+	 * @param maxKey
+	 *            The greatest key to be put.
+	 * @param count
+	 *            The number of entries to be put.
+	 * @return {@code true} iff the entries are to be written into the dense
+	 *         array using {@link #putDense(int, Object)}; Otherwise, they are
+	 *         to be written into the sparse map, whose key bounds have already
+	 *         been widened to include the given range.
+	 */
+	private boolean prepareBulkPut(final int minKey, final int maxKey, final int count) {
+		final boolean result;
+		if (count < 1) {
+			// Nothing will be written
+			result = sparse == null;
+		} else if (sparse == null) {
+			if (minKey >= 0 && maxKey < maxDenseLength(denseSize + count)) {
+				if (maxKey >= denseValues.length) {
+					denseValues = Arrays.copyOf(denseValues, maxKey + 1);
+					occupied = Arrays.copyOf(occupied, maxKey + 64 >>> 6);
+				}
+				result = true;
+			} else {
+				toSparse(denseSize + count);
+				sparseMinKey = Math.min(sparseMinKey, minKey);
+				sparseMaxKey = Math.max(sparseMaxKey, maxKey);
+				result = false;
+			}
+		} else {
+			final int newMinKey = Math.min(sparseMinKey, minKey);
+			final int newMaxKey = Math.max(sparseMaxKey, maxKey);
+			if (newMinKey >= 0 && newMaxKey < maxDenseLength(sparse.size() + count) / 2) {
+				toDense(newMaxKey + 1);
+				result = true;
+			} else {
+				if (count > sparse.size()) {
+					// Re-hash into a table large enough for all entries at
+					// once rather than letting the table grow repeatedly
+					final Int2ObjectOpenHashMap<V> entries = sparse;
+					sparse = new Int2ObjectOpenHashMap<>(entries.size() + count);
+					sparse.defaultReturnValue(defRetValue);
+					sparse.putAll(entries);
+				}
+				sparseMinKey = newMinKey;
+				sparseMaxKey = newMaxKey;
+				result = false;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Puts an entry into the dense array, which must already be long enough to
+	 * hold its key.
+	 *
+	 * @param k
+	 *            The key, which is a valid index of {@link #denseValues}.
+	 * @param v
+	 *            The value.
+	 * @return The previous value for the key or the default return value if
+	 *         there was none.
+	 */
+	@SuppressWarnings("unchecked")
+	private V putDense(final int k, final V v) {
+		final long bit = 1L << k;
+		final V result;
+		if ((occupied[k >>> 6] & bit) == 0L) {
+			occupied[k >>> 6] |= bit;
+			++denseSize;
+			result = defRetValue;
+		} else {
+			result = (V) denseValues[k];
+		}
+		denseValues[k] = v;
+		return result;
+	}
+
+	private V putSparse(final int k, final V v) {
+		final int oldSize = sparse.size();
+		final V result = sparse.put(k, v);
+		if (sparse.size() > oldSize) {
+			sparseMinKey = Math.min(sparseMinKey, k);
+			sparseMaxKey = Math.max(sparseMaxKey, k);
+			if (sparseMinKey >= 0 && sparseMaxKey < maxDenseLength(sparse.size()) / 2) {
+				toDense(sparseMaxKey + 1);
+			}
+		}
+		return result;
+	}
+
+	private void removeDense(final int k) {
+		denseValues[k] = null;
+		occupied[k >>> 6] &= ~(1L << k);
+		--denseSize;
+	}
+
+	/**
+	 * Shrinks the dense array to the greatest key still in it or changes to the
+	 * sparse representation if the keys are too sparse for the array to be
+	 * shrunk enough.
+	 */
+	private void shrinkDense() {
+		int maxKey = -1;
+		for (int wordIdx = occupied.length - 1; wordIdx >= 0; --wordIdx) {
+			if (occupied[wordIdx] != 0L) {
+				maxKey = (wordIdx << 6) + 63 - Long.numberOfLeadingZeros(occupied[wordIdx]);
+				break;
+			}
+		}
+		if (maxKey < maxDenseLength(denseSize)) {
+			final int newLength = Math.max(MIN_DENSE_LENGTH, maxKey + 1);
+			denseValues = Arrays.copyOf(denseValues, newLength);
+			occupied = Arrays.copyOf(occupied, newLength + 63 >>> 6);
+		} else {
+			toSparse(denseSize);
+		}
+	}
+
+	private void toDense(final int length) {
+		final Int2ObjectOpenHashMap<V> entries = sparse;
+		sparse = null;
+		allocateDense(Math.max(MIN_DENSE_LENGTH, length));
+		for (final Int2ObjectMap.Entry<V> entry : entries.int2ObjectEntrySet()) {
+			final int k = entry.getIntKey();
+			denseValues[k] = entry.getValue();
+			occupied[k >>> 6] |= 1L << k;
+		}
+		denseSize = entries.size();
+	}
+
+	@SuppressWarnings("unchecked")
+	private void toSparse(final int expected) {
+		sparse = new Int2ObjectOpenHashMap<>(Math.max(expected, MIN_DENSE_LENGTH));
+		sparse.defaultReturnValue(defRetValue);
+		sparseMinKey = Integer.MAX_VALUE;
+		sparseMaxKey = Integer.MIN_VALUE;
+		for (int k = nextOccupied(0); k >= 0; k = nextOccupied(k + 1)) {
+			sparse.put(k, (V) denseValues[k]);
+			sparseMinKey = Math.min(sparseMinKey, k);
+			sparseMaxKey = k;
+		}
+		denseValues = null;
+		occupied = null;
+		denseSize = 0;
+	}
+
+}
@@ -0,0 +1,626 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntBidirectionalIterator;
+import it.unimi.dsi.fastutil.ints.AbstractIntSortedSet;
+import it.unimi.dsi.fastutil.ints.IntBidirectionalIterator;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+
+/**
+ * An {@link IntSortedSet} which changes its representation as it grows: A
+ * single element is stored inline, up to {@link #TREE_THRESHOLD} elements are
+ * stored in a packed sorted {@code int} array and any more are stored in an
+ * {@link IntRBTreeSet}. Since most keys of a reverse-lookup index map occur
+ * only a few times, this uses far less memory per key than using a tree for
+ * every key. Adding an element greater than all others, which is the most
+ * common case when indexing a list in order, takes amortized constant time.
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class AdaptiveIntSortedSet extends AbstractIntSortedSet implements Serializable {
+
+	/**
+	 * A view of the elements of the set within a range.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class Subset extends AbstractIntSortedSet implements Serializable {
+
+		/**
+		 * The generated serial version UID.
+		 */
+		private static final long serialVersionUID = -3106893542286609787L;
+
+		/**
+		 * If {@code true}, the subset has no lower bound.
+		 */
+		private final boolean bottom;
+
+		/**
+		 * The inclusive lower bound of the subset.
+		 */
+		private final int from;
+
+		/**
+		 * The exclusive upper bound of the subset.
+		 */
+		private final int to;
+
+		/**
+		 * If {@code true}, the subset has no upper bound.
+		 */
+		private final boolean top;
+
+		private Subset(final int from, final boolean bottom, final int to, final boolean top) {
+			if (!bottom && !top && from > to) {
+				throw new IllegalArgumentException(String.format("Start element (%d) is larger than end element (%d)",
+						from, to));
+			}
+			this.from = from;
+			this.bottom = bottom;
+			this.to = to;
+			this.top = top;
+		}
+
+		@Override
+		public boolean add(final int k) {
+			if (!isInRange(k)) {
+				throw new IllegalArgumentException(
+						String.format("Element (%d) out of range [%s, %s)", k, bottom ? "-" : from, top ? "-" : to));
+			}
+			return AdaptiveIntSortedSet.this.add(k);
+		}
+
+		@Override
+		public void clear() {
+			for (final IntBidirectionalIterator iter = iterator(); iter.hasNext();) {
+				iter.nextInt();
+				iter.remove();
+			}
+		}
+
+		@Override
+		public IntComparator comparator() {
+			return null;
+		}
+
+		@Override
+		public boolean contains(final int k) {
+			return isInRange(k) && AdaptiveIntSortedSet.this.contains(k);
+		}
+
+		@Override
+		public int firstInt() {
+			final int result;
+			if (tree == null) {
+				final int idx = bottom ? 0 : packedInsertionPoint(from, false);
+				if (idx >= size || !top && packedElement(idx) >= to) {
+					throw new NoSuchElementException();
+				}
+				result = packedElement(idx);
+			} else {
+				result = treeRange().firstInt();
+			}
+			return result;
+		}
+
+		@Override
+		public IntSortedSet headSet(final int to) {
+			return top || to < this.to ? new Subset(from, bottom, to, false) : this;
+		}
+
+		@Override
+		public IntBidirectionalIterator iterator() {
+			final IntBidirectionalIterator result;
+			if (tree == null) {
+				result = new PackedIterator(bottom ? 0 : packedInsertionPoint(from, false), lowerBound(),
+						upperBound());
+			} else {
+				result = treeRange().iterator();
+			}
+			return result;
+		}
+
+		@Override
+		public IntBidirectionalIterator iterator(final int from) {
+			final IntBidirectionalIterator result;
+			if (tree == null) {
+				int next = packedInsertionPoint(from, true);
+				if (!bottom) {
+					next = Math.max(next, packedInsertionPoint(this.from, false));
+				}
+				if (!top) {
+					next = Math.min(next, packedInsertionPoint(to, false));
+				}
+				result = new PackedIterator(next, lowerBound(), upperBound());
+			} else {
+				result = treeRange().iterator(from);
+			}
+			return result;
+		}
+
+		@Override
+		public int lastInt() {
+			final int result;
+			if (tree == null) {
+				final int idx = (top ? size : packedInsertionPoint(to, false)) - 1;
+				if (idx < 0 || !bottom && packedElement(idx) < from) {
+					throw new NoSuchElementException();
+				}
+				result = packedElement(idx);
+			} else {
+				result = treeRange().lastInt();
+			}
+			return result;
+		}
+
+		@Override
+		public boolean remove(final int k) {
+			return isInRange(k) && AdaptiveIntSortedSet.this.remove(k);
+		}
+
+		@Override
+		public int size() {
+			final int result;
+			if (tree == null) {
+				final int start = bottom ? 0 : packedInsertionPoint(from, false);
+				final int end = top ? size : packedInsertionPoint(to, false);
+				result = Math.max(0, end - start);
+			} else {
+				result = treeRange().size();
+			}
+			return result;
+		}
+
+		@Override
+		public IntSortedSet subSet(final int from, final int to) {
+			final int newFrom = bottom ? from : Math.max(from, this.from);
+			final int newTo = top ? to : Math.min(to, this.to);
+			return new Subset(newFrom, false, newTo, false);
+		}
+
+		@Override
+		public IntSortedSet tailSet(final int from) {
+			return bottom || from > this.from ? new Subset(from, false, to, top) : this;
+		}
+
+		private boolean isInRange(final int k) {
+			return (bottom || k >= from) && (top || k < to);
+		}
+
+		private long lowerBound() {
+			return bottom ? Long.MIN_VALUE : from;
+		}
+
+		/**
+		 * @return A view of the same range of the current
+		 *         {@link AdaptiveIntSortedSet#tree tree representation}; The
+		 *         view is not cached because the representation may change
+		 *         after this subset is created.
+		 */
+		private IntSortedSet treeRange() {
+			final IntSortedSet result;
+			if (bottom) {
+				result = top ? tree : tree.headSet(to);
+			} else {
+				result = top ? tree.tailSet(from) : tree.subSet(from, to);
+			}
+			return result;
+		}
+
+		private long upperBound() {
+			return top ? Long.MAX_VALUE : to;
+		}
+
+	}
+
+	/**
+	 * An iterator over the inline or array representation of the set, which
+	 * optionally stops at the bounds of a {@link Subset}.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class PackedIterator extends AbstractIntBidirectionalIterator {
+
+		/**
+		 * The index of the element last returned, or {@code -1} if there is
+		 * none.
+		 */
+		private int last = -1;
+
+		/**
+		 * The inclusive lower bound of the elements to iterate over.
+		 */
+		private final long lowerBound;
+
+		/**
+		 * The index of the element to be returned by the next call to
+		 * {@link #nextInt()}.
+		 */
+		private int next;
+
+		/**
+		 * The exclusive upper bound of the elements to iterate over.
+		 */
+		private final long upperBound;
+
+		private PackedIterator(final int next) {
+			this(next, Long.MIN_VALUE, Long.MAX_VALUE);
+		}
+
+		private PackedIterator(final int next, final long lowerBound, final long upperBound) {
+			this.next = next;
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next < size && packedElement(next) < upperBound;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			return next > 0 && packedElement(next - 1) >= lowerBound;
+		}
+
+		@Override
+		public int nextInt() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = next++;
+			return packedElement(last);
+		}
+
+		@Override
+		public int previousInt() {
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			last = --next;
+			return packedElement(last);
+		}
+
+		@Override
+		public void remove() {
+			if (last < 0) {
+				throw new IllegalStateException();
+			}
+			removePacked(last);
+			if (last < next) {
+				--next;
+			}
+			last = -1;
+		}
+	}
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = -6418404745383367421L;
+
+	/**
+	 * The number of elements above which the elements are stored in a tree
+	 * rather than in a sorted array.
+	 */
+	public static final int TREE_THRESHOLD = 512;
+
+	/**
+	 * A {@link Supplier} of new, empty {@code AdaptiveIntSortedSet} instances
+	 * which is itself serializable, so that it can be used as the value
+	 * collection factory of a serializable {@link MultiValueObject2IntMap} or
+	 * {@link ReverseLookupList}.
+	 */
+	public static final Supplier<IntSortedSet> SERIALIZABLE_FACTORY = (Supplier<IntSortedSet> & Serializable) AdaptiveIntSortedSet::new;
+
+	private static final int INITIAL_ARRAY_CAPACITY = 4;
+
+	/**
+	 * The sorted elements of the set if it is in its array representation,
+	 * otherwise {@code null}.
+	 */
+	private int[] elements;
+
+	/**
+	 * The only element of the set if it is in its inline representation.
+	 */
+	private int singleton;
+
+	/**
+	 * The number of elements in the set if it is in its inline or array
+	 * representation.
+	 */
+	private int size;
+
+	/**
+	 * The elements of the set if it is in its tree representation, otherwise
+	 * {@code null}.
+	 */
+	private IntSortedSet tree;
+
+	/**
+	 * Creates a new, empty set.
+	 */
+	public AdaptiveIntSortedSet() {
+		// Start in the inline representation
+	}
+
+	@Override
+	public boolean add(final int k) {
+		final boolean result;
+		if (tree != null) {
+			result = tree.add(k);
+		} else if (elements != null) {
+			result = addToArray(k);
+		} else if (size == 0) {
+			singleton = k;
+			size = 1;
+			result = true;
+		} else if (singleton == k) {
+			result = false;
+		} else {
+			elements = new int[INITIAL_ARRAY_CAPACITY];
+			if (singleton < k) {
+				elements[0] = singleton;
+				elements[1] = k;
+			} else {
+				elements[0] = k;
+				elements[1] = singleton;
+			}
+			size = 2;
+			result = true;
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		elements = null;
+		tree = null;
+		size = 0;
+	}
+
+	@Override
+	public IntComparator comparator() {
+		return null;
+	}
+
+	@Override
+	public boolean contains(final int k) {
+		final boolean result;
+		if (tree != null) {
+			result = tree.contains(k);
+		} else if (elements != null) {
+			result = Arrays.binarySearch(elements, 0, size, k) >= 0;
+		} else {
+			result = size > 0 && singleton == k;
+		}
+		return result;
+	}
+
+	@Override
+	public int firstInt() {
+		final int result;
+		if (tree != null) {
+			result = tree.firstInt();
+		} else if (size == 0) {
+			throw new NoSuchElementException();
+		} else {
+			result = packedElement(0);
+		}
+		return result;
+	}
+
+	@Override
+	public IntSortedSet headSet(final int to) {
+		return new Subset(0, true, to, false);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size() == 0;
+	}
+
+	@Override
+	public IntBidirectionalIterator iterator() {
+		return tree == null ? new PackedIterator(0) : tree.iterator();
+	}
+
+	/**
+	 * Returns an iterator starting after a given element, i.e.&nbsp;the first
+	 * call to {@link IntBidirectionalIterator#nextInt()} returns the least
+	 * element greater than the given element.
+	 *
+	 * @param from
+	 *            The element to start after.
+	 * @return A new {@link IntBidirectionalIterator}.
+	 */
+	@Override
+	public IntBidirectionalIterator iterator(final int from) {
+		final IntBidirectionalIterator result;
+		if (tree == null) {
+			result = new PackedIterator(packedInsertionPoint(from, true));
+		} else {
+			result = tree.iterator(from);
+		}
+		return result;
+	}
+
+	@Override
+	public int lastInt() {
+		final int result;
+		if (tree != null) {
+			result = tree.lastInt();
+		} else if (size == 0) {
+			throw new NoSuchElementException();
+		} else {
+			result = packedElement(size - 1);
+		}
+		return result;
+	}
+
+	@Override
+	public boolean remove(final int k) {
+		final boolean result;
+		if (tree != null) {
+			result = tree.remove(k);
+		} else if (elements != null) {
+			final int idx = Arrays.binarySearch(elements, 0, size, k);
+			if (idx < 0) {
+				result = false;
+			} else {
+				removePacked(idx);
+				result = true;
+			}
+		} else if (size > 0 && singleton == k) {
+			size = 0;
+			result = true;
+		} else {
+			result = false;
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return tree == null ? size : tree.size();
+	}
+
+	@Override
+	public IntSortedSet subSet(final int from, final int to) {
+		return new Subset(from, false, to, false);
+	}
+
+	@Override
+	public IntSortedSet tailSet(final int from) {
+		return new Subset(from, false, 0, true);
+	}
+
+	private boolean addToArray(final int k) {
+		final boolean result;
+		final int insertionPoint;
+		if (elements[size - 1] < k) {
+			// Appending is the most common case, so avoid the binary search
+			insertionPoint = size;
+		} else {
+			final int idx = Arrays.binarySearch(elements, 0, size, k);
+			insertionPoint = idx < 0 ? -idx - 1 : -1;
+		}
+
+		if (insertionPoint < 0) {
+			result = false;
+		} else if (size == TREE_THRESHOLD) {
+			tree = new IntRBTreeSet(elements, 0, size);
+			elements = null;
+			size = 0;
+			result = tree.add(k);
+		} else {
+			if (size == elements.length) {
+				elements = Arrays.copyOf(elements, Math.min(TREE_THRESHOLD, size + (size >> 1)));
+			}
+			System.arraycopy(elements, insertionPoint, elements, insertionPoint + 1, size - insertionPoint);
+			elements[insertionPoint] = k;
+			++size;
+			result = true;
+		}
+		return result;
+	}
+
+	/**
+	 * Adds a given amount to each element within a range. The shifted
+	 * elements must not reach or pass any element outside the range, so that
+	 * elements in the array representation can be shifted in place.
+	 *
+	 * @param from
+	 *            The inclusive minimum of the elements to shift.
+	 * @param to
+	 *            The exclusive maximum of the elements to shift.
+	 * @param delta
+	 *            The amount to add to each element.
+	 */
+	void shiftInPlace(final int from, final int to, final int delta) {
+		if (tree == null) {
+			final int end = packedInsertionPoint(to, false);
+			for (int i = packedInsertionPoint(from, false); i < end; ++i) {
+				if (elements == null) {
+					singleton += delta;
+				} else {
+					elements[i] += delta;
+				}
+			}
+		} else {
+			final IntSortedSet range = tree.subSet(from, to);
+			final int[] shifted = range.toIntArray();
+			range.clear();
+			for (final int k : shifted) {
+				tree.add(k + delta);
+			}
+		}
+	}
+
+	private int packedElement(final int idx) {
+		return elements == null ? singleton : elements[idx];
+	}
+
+	/**
+	 * @param k
+	 *            The element to search for.
+	 * @param after
+	 *            If {@code true}, the returned index is after the element if
+	 *            it is present; Otherwise, it is the index of the element.
+	 * @return The index of the first element greater than (or equal to) the
+	 *         given element.
+	 */
+	private int packedInsertionPoint(final int k, final boolean after) {
+		final int result;
+		if (elements == null) {
+			result = size > 0 && (singleton < k || after && singleton == k) ? 1 : 0;
+		} else {
+			final int idx = Arrays.binarySearch(elements, 0, size, k);
+			if (idx < 0) {
+				result = -idx - 1;
+			} else {
+				result = after ? idx + 1 : idx;
+			}
+		}
+		return result;
+	}
+
+	private void removePacked(final int idx) {
+		if (elements != null) {
+			System.arraycopy(elements, idx + 1, elements, idx, size - idx - 1);
+			if (size == 2) {
+				// Revert to the inline representation
+				singleton = elements[0];
+				elements = null;
+			}
+		}
+		--size;
+	}
+
+}
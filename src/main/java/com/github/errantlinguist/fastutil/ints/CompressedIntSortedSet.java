@@ -0,0 +1,868 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntBidirectionalIterator;
+import it.unimi.dsi.fastutil.ints.AbstractIntSortedSet;
+import it.unimi.dsi.fastutil.ints.IntBidirectionalIterator;
+import it.unimi.dsi.fastutil.ints.IntComparator;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+
+/**
+ * An {@link IntSortedSet} which stores its elements compressed in blocks of up
+ * to {@link #BLOCK_SIZE} elements: The first and last element of each block are
+ * stored uncompressed and the rest as the variable-length-encoded differences
+ * between consecutive elements. The first element of each block serves as a
+ * skip pointer, so that {@link #contains(int)} and the start of a
+ * {@link #subSet(int, int) subset} are found by binary search over the blocks
+ * followed by decoding at most one block.
+ * <p>
+ * This is meant for the posting lists of a positional index, i.e.&nbsp;sets
+ * of close-together positions which are mostly added in ascending order: Each
+ * such position then takes little more than one byte, rather than the more
+ * than forty bytes taken by an {@link IntRBTreeSet} entry. Adding an element
+ * greater than all others takes amortized constant time; Adding or removing
+ * any other element re-encodes only a single block.
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class CompressedIntSortedSet extends AbstractIntSortedSet implements Serializable {
+
+	/**
+	 * An iterator over the blocks of the set, which decodes a single block at a
+	 * time and optionally stops at the bounds of a {@link Subset}.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class BlockIterator extends AbstractIntBidirectionalIterator {
+
+		/**
+		 * The index of the currently-decoded block.
+		 */
+		private int block;
+
+		/**
+		 * The number of elements in the currently-decoded block.
+		 */
+		private int count;
+
+		/**
+		 * The element last returned.
+		 */
+		private int last;
+
+		/**
+		 * If {@code true}, {@link #last} has been returned and not yet removed.
+		 */
+		private boolean hasLast;
+
+		/**
+		 * The inclusive lower bound of the elements to iterate over.
+		 */
+		private final long lowerBound;
+
+		/**
+		 * The index in {@link #values} of the element to be returned by the
+		 * next call to {@link #nextInt()}.
+		 */
+		private int next;
+
+		/**
+		 * The exclusive upper bound of the elements to iterate over.
+		 */
+		private final long upperBound;
+
+		/**
+		 * The decoded elements of the current block.
+		 */
+		private final int[] values = new int[BLOCK_SIZE];
+
+		private BlockIterator(final long lowerBound, final long upperBound) {
+			this.lowerBound = lowerBound;
+			this.upperBound = upperBound;
+		}
+
+		@Override
+		public boolean hasNext() {
+			final boolean result;
+			if (next < count) {
+				result = values[next] < upperBound;
+			} else {
+				result = block + 1 < blockCount && blockFirsts[block + 1] < upperBound;
+			}
+			return result;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			final boolean result;
+			if (next > 0) {
+				result = values[next - 1] >= lowerBound;
+			} else {
+				result = block > 0 && blockLasts[block - 1] >= lowerBound;
+			}
+			return result;
+		}
+
+		@Override
+		public int nextInt() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			if (next == count) {
+				load(block + 1);
+				next = 0;
+			}
+			last = values[next++];
+			hasLast = true;
+			return last;
+		}
+
+		@Override
+		public int previousInt() {
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			if (next == 0) {
+				load(block - 1);
+				next = count;
+			}
+			last = values[--next];
+			hasLast = true;
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (!hasLast) {
+				throw new IllegalStateException();
+			}
+			CompressedIntSortedSet.this.remove(last);
+			// The blocks may have been re-encoded, split or merged
+			seek(last, false);
+			hasLast = false;
+		}
+
+		private void load(final int block) {
+			this.block = block;
+			count = decode(block, values, 0);
+		}
+
+		/**
+		 * Positions the iterator before the first element greater than (or
+		 * equal to) a given element.
+		 *
+		 * @param k
+		 *            The element to position the iterator at.
+		 * @param inclusive
+		 *            If {@code true}, the next element returned may be equal to
+		 *            {@code k}.
+		 * @return This iterator.
+		 */
+		private BlockIterator seek(final int k, final boolean inclusive) {
+			if (blockCount < 1) {
+				block = 0;
+				count = 0;
+				next = 0;
+			} else {
+				load(Math.max(0, findBlock(k)));
+				final int idx = Arrays.binarySearch(values, 0, count, k);
+				if (idx < 0) {
+					next = -idx - 1;
+				} else {
+					next = inclusive ? idx : idx + 1;
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Positions the iterator before the first element of the set.
+		 *
+		 * @return This iterator.
+		 */
+		private BlockIterator start() {
+			block = 0;
+			count = blockCount < 1 ? 0 : decode(0, values, 0);
+			next = 0;
+			return this;
+		}
+	}
+
+	/**
+	 * A view of the elements of the set within a range.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class Subset extends AbstractIntSortedSet implements Serializable {
+
+		/**
+		 * The generated serial version UID.
+		 */
+		private static final long serialVersionUID = 7351862410538294156L;
+
+		/**
+		 * If {@code true}, the subset has no lower bound.
+		 */
+		private final boolean bottom;
+
+		/**
+		 * The inclusive lower bound of the subset.
+		 */
+		private final int from;
+
+		/**
+		 * The exclusive upper bound of the subset.
+		 */
+		private final int to;
+
+		/**
+		 * If {@code true}, the subset has no upper bound.
+		 */
+		private final boolean top;
+
+		private Subset(final int from, final boolean bottom, final int to, final boolean top) {
+			if (!bottom && !top && from > to) {
+				throw new IllegalArgumentException(
+						String.format("Start element (%d) is larger than end element (%d)", from, to));
+			}
+			this.from = from;
+			this.bottom = bottom;
+			this.to = to;
+			this.top = top;
+		}
+
+		@Override
+		public boolean add(final int k) {
+			if (!isInRange(k)) {
+				throw new IllegalArgumentException(
+						String.format("Element (%d) out of range [%s, %s)", k, bottom ? "-" : from, top ? "-" : to));
+			}
+			return CompressedIntSortedSet.this.add(k);
+		}
+
+		@Override
+		public void clear() {
+			for (final IntBidirectionalIterator iter = iterator(); iter.hasNext();) {
+				iter.nextInt();
+				iter.remove();
+			}
+		}
+
+		@Override
+		public IntComparator comparator() {
+			return null;
+		}
+
+		@Override
+		public boolean contains(final int k) {
+			return isInRange(k) && CompressedIntSortedSet.this.contains(k);
+		}
+
+		@Override
+		public int firstInt() {
+			final IntBidirectionalIterator iter = iterator();
+			if (!iter.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return iter.nextInt();
+		}
+
+		@Override
+		public IntSortedSet headSet(final int to) {
+			return top || to < this.to ? new Subset(from, bottom, to, false) : this;
+		}
+
+		@Override
+		public IntBidirectionalIterator iterator() {
+			final BlockIterator result = new BlockIterator(lowerBound(), upperBound());
+			return bottom ? result.start() : result.seek(from, true);
+		}
+
+		@Override
+		public IntBidirectionalIterator iterator(final int from) {
+			final BlockIterator result = new BlockIterator(lowerBound(), upperBound());
+			if (!bottom && from < this.from) {
+				result.seek(this.from, true);
+			} else if (!top && from >= to) {
+				result.seek(to, true);
+			} else {
+				result.seek(from, false);
+			}
+			return result;
+		}
+
+		@Override
+		public int lastInt() {
+			final BlockIterator iter = new BlockIterator(lowerBound(), upperBound());
+			if (top) {
+				iter.seek(CompressedIntSortedSet.this.lastInt(), false);
+			} else {
+				iter.seek(to, true);
+			}
+			if (!iter.hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			return iter.previousInt();
+		}
+
+		@Override
+		public boolean remove(final int k) {
+			return isInRange(k) && CompressedIntSortedSet.this.remove(k);
+		}
+
+		@Override
+		public int size() {
+			int result = 0;
+			// Count whole blocks without decoding them
+			for (int b = bottom ? 0 : Math.max(0, findBlock(from)); b < blockCount; ++b) {
+				if (!top && blockFirsts[b] >= to) {
+					break;
+				}
+				if ((bottom || blockFirsts[b] >= from) && (top || blockLasts[b] < to)) {
+					result += blockSizes[b];
+				} else {
+					final int[] values = scratch();
+					final int count = decode(b, values, 0);
+					for (int i = 0; i < count; ++i) {
+						if (isInRange(values[i])) {
+							++result;
+						}
+					}
+				}
+			}
+			return result;
+		}
+
+		@Override
+		public IntSortedSet subSet(final int from, final int to) {
+			final int newFrom = bottom ? from : Math.max(from, this.from);
+			final int newTo = top ? to : Math.min(to, this.to);
+			return new Subset(newFrom, false, newTo, false);
+		}
+
+		@Override
+		public IntSortedSet tailSet(final int from) {
+			return bottom || from > this.from ? new Subset(from, false, to, top) : this;
+		}
+
+		private boolean isInRange(final int k) {
+			return (bottom || k >= from) && (top || k < to);
+		}
+
+		private long lowerBound() {
+			return bottom ? Long.MIN_VALUE : from;
+		}
+
+		private long upperBound() {
+			return top ? Long.MAX_VALUE : to;
+		}
+
+	}
+
+	/**
+	 * The maximum number of elements stored in a single block.
+	 */
+	public static final int BLOCK_SIZE = 128;
+
+	/**
+	 * A {@link Supplier} of new, empty {@code CompressedIntSortedSet} instances
+	 * which is itself serializable, so that it can be used as the value
+	 * collection factory of a {@link MultiValueObject2IntMap}.
+	 */
+	public static final Supplier<IntSortedSet> SERIALIZABLE_FACTORY = (Supplier<IntSortedSet> & Serializable) CompressedIntSortedSet::new;
+
+	private static final int INITIAL_BLOCK_BYTE_CAPACITY = 16;
+
+	private static final int INITIAL_BLOCK_CAPACITY = 1;
+
+	/**
+	 * The maximum number of bytes of a single encoded difference.
+	 */
+	private static final int MAX_VARINT_LENGTH = 5;
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = -2095744470925713128L;
+
+	/**
+	 * Writes an unsigned variable-length integer.
+	 *
+	 * @param bytes
+	 *            The array to write to.
+	 * @param offset
+	 *            The index to write the first byte to.
+	 * @param value
+	 *            The value to write, which is treated as unsigned.
+	 * @return The index after the last byte written.
+	 */
+	private static int writeVarint(final byte[] bytes, final int offset, final int value) {
+		int result = offset;
+		int remaining = value;
+		while ((remaining & ~0x7F) != 0) {
+			bytes[result++] = (byte) (remaining & 0x7F | 0x80);
+			remaining >>>= 7;
+		}
+		bytes[result++] = (byte) remaining;
+		return result;
+	}
+
+	/**
+	 * The differences between the consecutive elements of each block after its
+	 * first element.
+	 */
+	private byte[][] blockBytes;
+
+	/**
+	 * The number of bytes of {@link #blockBytes} used by each block.
+	 */
+	private int[] blockByteLengths;
+
+	/**
+	 * The number of blocks.
+	 */
+	private int blockCount;
+
+	/**
+	 * The first element of each block.
+	 */
+	private int[] blockFirsts;
+
+	/**
+	 * The last element of each block.
+	 */
+	private int[] blockLasts;
+
+	/**
+	 * The number of elements in each block.
+	 */
+	private int[] blockSizes;
+
+	/**
+	 * A buffer for decoding blocks being modified, which holds one element
+	 * more than a full block.
+	 */
+	private transient int[] scratch;
+
+	/**
+	 * The number of elements in the set.
+	 */
+	private int size;
+
+	/**
+	 * Creates a new, empty set.
+	 */
+	public CompressedIntSortedSet() {
+		blockBytes = new byte[INITIAL_BLOCK_CAPACITY][];
+		blockByteLengths = new int[INITIAL_BLOCK_CAPACITY];
+		blockFirsts = new int[INITIAL_BLOCK_CAPACITY];
+		blockLasts = new int[INITIAL_BLOCK_CAPACITY];
+		blockSizes = new int[INITIAL_BLOCK_CAPACITY];
+	}
+
+	@Override
+	public boolean add(final int k) {
+		final boolean result;
+		if (blockCount < 1) {
+			insertBlock(0);
+			blockFirsts[0] = k;
+			blockLasts[0] = k;
+			blockSizes[0] = 1;
+			result = true;
+		} else {
+			final int block = Math.max(0, findBlock(k));
+			if (k > blockLasts[block]) {
+				result = addAfter(block, k);
+			} else {
+				result = addWithin(block, k);
+			}
+		}
+		if (result) {
+			++size;
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(blockBytes, 0, blockCount, null);
+		blockCount = 0;
+		size = 0;
+	}
+
+	@Override
+	public IntComparator comparator() {
+		return null;
+	}
+
+	@Override
+	public boolean contains(final int k) {
+		final int block = findBlock(k);
+		boolean result = false;
+		if (block >= 0 && k <= blockLasts[block]) {
+			if (k == blockFirsts[block] || k == blockLasts[block]) {
+				result = true;
+			} else {
+				final byte[] bytes = blockBytes[block];
+				final int end = blockByteLengths[block];
+				int pos = 0;
+				int element = blockFirsts[block];
+				while (pos < end && element < k) {
+					int delta = 0;
+					int shift = 0;
+					byte b;
+					do {
+						b = bytes[pos++];
+						delta |= (b & 0x7F) << shift;
+						shift += 7;
+					} while (b < 0);
+					element += delta;
+				}
+				result = element == k;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int firstInt() {
+		if (size < 1) {
+			throw new NoSuchElementException();
+		}
+		return blockFirsts[0];
+	}
+
+	@Override
+	public IntSortedSet headSet(final int to) {
+		return new Subset(0, true, to, false);
+	}
+
+	@Override
+	public IntBidirectionalIterator iterator() {
+		return new BlockIterator(Long.MIN_VALUE, Long.MAX_VALUE).start();
+	}
+
+	@Override
+	public IntBidirectionalIterator iterator(final int from) {
+		return new BlockIterator(Long.MIN_VALUE, Long.MAX_VALUE).seek(from, false);
+	}
+
+	@Override
+	public int lastInt() {
+		if (size < 1) {
+			throw new NoSuchElementException();
+		}
+		return blockLasts[blockCount - 1];
+	}
+
+	@Override
+	public boolean remove(final int k) {
+		final int block = findBlock(k);
+		boolean result = false;
+		if (block >= 0 && k <= blockLasts[block]) {
+			final int[] values = scratch();
+			final int count = decode(block, values, 0);
+			final int idx = Arrays.binarySearch(values, 0, count, k);
+			if (idx >= 0) {
+				System.arraycopy(values, idx + 1, values, idx, count - idx - 1);
+				final int newCount = count - 1;
+				if (newCount < 1) {
+					removeBlock(block);
+				} else if (block + 1 < blockCount && newCount + blockSizes[block + 1] <= BLOCK_SIZE / 2) {
+					// Merge small neighbouring blocks so that the per-block
+					// overhead stays low
+					final int mergedCount = newCount + decode(block + 1, values, newCount);
+					encode(block, values, 0, mergedCount);
+					removeBlock(block + 1);
+				} else {
+					encode(block, values, 0, newCount);
+				}
+				--size;
+				result = true;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public IntSortedSet subSet(final int from, final int to) {
+		return new Subset(from, false, to, false);
+	}
+
+	@Override
+	public IntSortedSet tailSet(final int from) {
+		return new Subset(from, false, 0, true);
+	}
+
+	/**
+	 * Trims the storage of each block to the bytes it uses.
+	 */
+	public void trim() {
+		for (int b = 0; b < blockCount; ++b) {
+			if (blockBytes[b].length > blockByteLengths[b]) {
+				blockBytes[b] = Arrays.copyOf(blockBytes[b], blockByteLengths[b]);
+			}
+		}
+		if (blockFirsts.length > blockCount) {
+			final int capacity = Math.max(INITIAL_BLOCK_CAPACITY, blockCount);
+			blockBytes = Arrays.copyOf(blockBytes, capacity);
+			blockByteLengths = Arrays.copyOf(blockByteLengths, capacity);
+			blockFirsts = Arrays.copyOf(blockFirsts, capacity);
+			blockLasts = Arrays.copyOf(blockLasts, capacity);
+			blockSizes = Arrays.copyOf(blockSizes, capacity);
+		}
+	}
+
+	/**
+	 * Adds a given amount to each element within a range. The shifted
+	 * elements must not reach or pass any element outside the range, so that
+	 * the order of the blocks does not change: Blocks entirely within the
+	 * range are shifted by changing only their first and last elements, since
+	 * the differences between their elements stay the same, and only the
+	 * blocks at the bounds of the range are decoded.
+	 *
+	 * @param from
+	 *            The inclusive minimum of the elements to shift.
+	 * @param to
+	 *            The exclusive maximum of the elements to shift.
+	 * @param delta
+	 *            The amount to add to each element.
+	 */
+	void shiftInPlace(final int from, final int to, final int delta) {
+		if (from < to) {
+			final int firstBlock = Math.max(0, findBlock(from));
+			final int lastBlock = findBlock(to - 1);
+			for (int b = firstBlock; b <= lastBlock; ++b) {
+				if (blockFirsts[b] >= from && blockLasts[b] < to) {
+					blockFirsts[b] += delta;
+					blockLasts[b] += delta;
+				} else if (blockLasts[b] >= from) {
+					final int[] values = scratch();
+					final int count = decode(b, values, 0);
+					for (int i = 0; i < count; ++i) {
+						if (values[i] >= from && values[i] < to) {
+							values[i] += delta;
+						}
+					}
+					encode(b, values, 0, count);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Adds an element which is greater than all elements of a given block and
+	 * less than all elements of the following block.
+	 */
+	private boolean addAfter(final int block, final int k) {
+		if (blockSizes[block] < BLOCK_SIZE) {
+			// Append to the end of the block
+			byte[] bytes = blockBytes[block];
+			final int length = blockByteLengths[block];
+			if (bytes == null) {
+				bytes = new byte[INITIAL_BLOCK_BYTE_CAPACITY];
+				blockBytes[block] = bytes;
+			} else if (bytes.length - length < MAX_VARINT_LENGTH) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + MAX_VARINT_LENGTH));
+				blockBytes[block] = bytes;
+			}
+			blockByteLengths[block] = writeVarint(bytes, length, k - blockLasts[block]);
+			blockLasts[block] = k;
+			++blockSizes[block];
+		} else if (block + 1 < blockCount && blockSizes[block + 1] < BLOCK_SIZE) {
+			// Prepend to the start of the next block
+			final int[] values = scratch();
+			values[0] = k;
+			final int count = decode(block + 1, values, 1) + 1;
+			encode(block + 1, values, 0, count);
+		} else {
+			insertBlock(block + 1);
+			blockFirsts[block + 1] = k;
+			blockLasts[block + 1] = k;
+			blockSizes[block + 1] = 1;
+		}
+		return true;
+	}
+
+	/**
+	 * Adds an element which is not greater than the last element of a given
+	 * block, splitting the block if it is full.
+	 */
+	private boolean addWithin(final int block, final int k) {
+		final int[] values = scratch();
+		final int count = decode(block, values, 0);
+		final int idx = Arrays.binarySearch(values, 0, count, k);
+		final boolean result = idx < 0;
+		if (result) {
+			final int insertionPoint = -idx - 1;
+			System.arraycopy(values, insertionPoint, values, insertionPoint + 1, count - insertionPoint);
+			values[insertionPoint] = k;
+			final int newCount = count + 1;
+			if (newCount > BLOCK_SIZE) {
+				final int half = newCount / 2;
+				insertBlock(block + 1);
+				encode(block, values, 0, half);
+				encode(block + 1, values, half, newCount - half);
+			} else {
+				encode(block, values, 0, newCount);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Decodes the elements of a block.
+	 *
+	 * @param block
+	 *            The index of the block to decode.
+	 * @param dest
+	 *            The array to write the elements to.
+	 * @param destOffset
+	 *            The index of {@code dest} to write the first element to.
+	 * @return The number of elements decoded.
+	 */
+	private int decode(final int block, final int[] dest, final int destOffset) {
+		final byte[] bytes = blockBytes[block];
+		final int result = blockSizes[block];
+		int pos = 0;
+		int element = blockFirsts[block];
+		dest[destOffset] = element;
+		for (int i = 1; i < result; ++i) {
+			int delta = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = bytes[pos++];
+				delta |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			element += delta;
+			dest[destOffset + i] = element;
+		}
+		return result;
+	}
+
+	/**
+	 * Encodes a sorted range of elements as a given block.
+	 *
+	 * @param block
+	 *            The index of the block to encode the elements as.
+	 * @param values
+	 *            The array containing the elements.
+	 * @param offset
+	 *            The index of the first element.
+	 * @param count
+	 *            The number of elements, which must be positive.
+	 */
+	private void encode(final int block, final int[] values, final int offset, final int count) {
+		byte[] bytes = blockBytes[block];
+		final int capacity = (count - 1) * MAX_VARINT_LENGTH;
+		if (bytes == null || bytes.length < capacity) {
+			bytes = new byte[Math.max(INITIAL_BLOCK_BYTE_CAPACITY, capacity)];
+			blockBytes[block] = bytes;
+		}
+		int length = 0;
+		for (int i = offset + 1; i < offset + count; ++i) {
+			length = writeVarint(bytes, length, values[i] - values[i - 1]);
+		}
+		blockByteLengths[block] = length;
+		blockFirsts[block] = values[offset];
+		blockLasts[block] = values[offset + count - 1];
+		blockSizes[block] = count;
+	}
+
+	/**
+	 * Finds the block which an element belongs in.
+	 *
+	 * @param k
+	 *            The element to find the block of.
+	 * @return The index of the last block whose first element is not greater
+	 *         than {@code k}, or {@code -1} if there is none.
+	 */
+	private int findBlock(final int k) {
+		int low = 0;
+		int high = blockCount - 1;
+		while (low <= high) {
+			final int mid = (low + high) >>> 1;
+			if (blockFirsts[mid] <= k) {
+				low = mid + 1;
+			} else {
+				high = mid - 1;
+			}
+		}
+		return low - 1;
+	}
+
+	/**
+	 * Inserts a new, empty block.
+	 *
+	 * @param block
+	 *            The index to insert the block at.
+	 */
+	private void insertBlock(final int block) {
+		if (blockCount == blockFirsts.length) {
+			final int capacity = Math.max(INITIAL_BLOCK_CAPACITY, blockCount * 2);
+			blockBytes = Arrays.copyOf(blockBytes, capacity);
+			blockByteLengths = Arrays.copyOf(blockByteLengths, capacity);
+			blockFirsts = Arrays.copyOf(blockFirsts, capacity);
+			blockLasts = Arrays.copyOf(blockLasts, capacity);
+			blockSizes = Arrays.copyOf(blockSizes, capacity);
+		}
+		final int moved = blockCount - block;
+		System.arraycopy(blockBytes, block, blockBytes, block + 1, moved);
+		System.arraycopy(blockByteLengths, block, blockByteLengths, block + 1, moved);
+		System.arraycopy(blockFirsts, block, blockFirsts, block + 1, moved);
+		System.arraycopy(blockLasts, block, blockLasts, block + 1, moved);
+		System.arraycopy(blockSizes, block, blockSizes, block + 1, moved);
+		blockBytes[block] = null;
+		blockByteLengths[block] = 0;
+		++blockCount;
+	}
+
+	private void removeBlock(final int block) {
+		final int moved = blockCount - block - 1;
+		System.arraycopy(blockBytes, block + 1, blockBytes, block, moved);
+		System.arraycopy(blockByteLengths, block + 1, blockByteLengths, block, moved);
+		System.arraycopy(blockFirsts, block + 1, blockFirsts, block, moved);
+		System.arraycopy(blockLasts, block + 1, blockLasts, block, moved);
+		System.arraycopy(blockSizes, block + 1, blockSizes, block, moved);
+		--blockCount;
+		blockBytes[blockCount] = null;
+	}
+
+	private int[] scratch() {
+		if (scratch == null) {
+			scratch = new int[BLOCK_SIZE + 1];
+		}
+		return scratch;
+	}
+
+}
@@ -0,0 +1,384 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+
+/**
+ * A thread-safe counterpart of {@link MultiValueObject2IntMap} for building
+ * an index from many threads at once, e.g.&nbsp;one thread per document.
+ * <p>
+ * The value collections are held in a {@link ConcurrentHashMap}, and the keys
+ * are guarded by a fixed number of stripe locks: Adding or removing values of
+ * a key locks only the stripe of that key, so threads adding values to
+ * different keys rarely block each other. The number of keys each value is
+ * mapped to is counted in tables which are likewise striped by value, so
+ * {@link #containsValue(int)} and {@link #valueFrequency(int)} never lock a
+ * key stripe.
+ * </p>
+ * <p>
+ * The value collections themselves need not be thread-safe, since they are
+ * only accessed while holding the lock of their key. They are therefore not
+ * exposed directly: Once building has finished, the index can be
+ * {@link #freeze() frozen} or {@link #toMultiValueObject2IntMap() copied} to
+ * an ordinary {@code MultiValueObject2IntMap}.
+ * </p>
+ *
+ * @param <K>
+ *            The key type.
+ * @param <C>
+ *            The type of {@code IntCollection} object used to contain the
+ *            values for each key.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class ConcurrentMultiValueObject2IntMap<K, C extends IntCollection> {
+
+	private static final int MAX_STRIPE_COUNT = 1 << 16;
+
+	/**
+	 * The value collection of each key.
+	 */
+	private final ConcurrentHashMap<K, C> decorated;
+
+	/**
+	 * The locks guarding the value collections of the keys in each stripe.
+	 */
+	private final Object[] keyLocks;
+
+	/**
+	 * The number of bits to shift a mixed hash right by in order to get its
+	 * stripe.
+	 */
+	private final int stripeShift;
+
+	/**
+	 * The {@link Supplier} used for creating new value collections for the map
+	 * keys.
+	 */
+	private final Supplier<? extends C> valueCollectionFactory;
+
+	/**
+	 * The number of occurrences of the values in each stripe in all value
+	 * collections, containing only values which occur at least once; Each
+	 * table is only accessed while holding its own lock.
+	 */
+	private final Int2IntOpenHashMap[] valueCounts;
+
+	/**
+	 * Creates a new, empty map with a default number of stripes.
+	 *
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys.
+	 */
+	public ConcurrentMultiValueObject2IntMap(final Supplier<? extends C> valueCollectionFactory) {
+		this(Hash.DEFAULT_INITIAL_SIZE, 64, valueCollectionFactory);
+	}
+
+	/**
+	 * Creates a new, empty map.
+	 *
+	 * @param expected
+	 *            The expected number of keys.
+	 * @param concurrencyLevel
+	 *            The expected number of threads concurrently modifying the
+	 *            map, which is used for determining the number of lock
+	 *            stripes.
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys.
+	 */
+	public ConcurrentMultiValueObject2IntMap(final int expected, final int concurrencyLevel,
+			final Supplier<? extends C> valueCollectionFactory) {
+		if (expected < 0) {
+			throw new IllegalArgumentException("The expected number of keys must be nonnegative");
+		}
+		if (concurrencyLevel <= 0) {
+			throw new IllegalArgumentException("Concurrency level must be positive");
+		}
+		final int stripeCount = HashCommon.nextPowerOfTwo(Math.min(concurrencyLevel, MAX_STRIPE_COUNT));
+		stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(stripeCount);
+		keyLocks = new Object[stripeCount];
+		valueCounts = new Int2IntOpenHashMap[stripeCount];
+		for (int i = 0; i < stripeCount; ++i) {
+			keyLocks[i] = new Object();
+			valueCounts[i] = new Int2IntOpenHashMap();
+		}
+		decorated = new ConcurrentHashMap<>(expected, Hash.DEFAULT_LOAD_FACTOR, concurrencyLevel);
+		this.valueCollectionFactory = valueCollectionFactory;
+	}
+
+	/**
+	 * @param key
+	 *            The key to check.
+	 * @return {@code true} iff the key has a value collection.
+	 */
+	public boolean containsKey(final Object key) {
+		return decorated.containsKey(key);
+	}
+
+	/**
+	 * Checks if a given value is mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to check the values of.
+	 * @param value
+	 *            The value to check.
+	 * @return {@code true} iff the given key maps to the given value.
+	 */
+	public boolean containsValue(final K key, final int value) {
+		final boolean result;
+		synchronized (keyLock(key)) {
+			final C keyValues = decorated.get(key);
+			result = keyValues != null && keyValues.contains(value);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if any key is mapped to a given value.
+	 *
+	 * @param value
+	 *            The value to check.
+	 * @return {@code true} iff at least one key maps to the value.
+	 */
+	public boolean containsValue(final int value) {
+		final Int2IntOpenHashMap counts = valueCounts[valueStripe(value)];
+		final boolean result;
+		synchronized (counts) {
+			result = counts.containsKey(value);
+		}
+		return result;
+	}
+
+	/**
+	 * Creates an immutable snapshot of the map, which should only be done once
+	 * no other thread is modifying it.
+	 *
+	 * @return A new {@link FrozenMultiValueObject2IntMap} containing the values
+	 *         of each key in the order they are iterated over.
+	 */
+	public FrozenMultiValueObject2IntMap<K> freeze() {
+		return new FrozenMultiValueObject2IntMap<>(decorated);
+	}
+
+	/**
+	 * @return An unmodifiable, weakly-consistent view of the keys of the map.
+	 */
+	public Set<K> keySet() {
+		return Collections.unmodifiableSet(decorated.keySet());
+	}
+
+	/**
+	 * Adds a value for a given key.
+	 *
+	 * @param key
+	 *            The key to add the new value to.
+	 * @param value
+	 *            The value to add.
+	 * @return {@code true} iff the value was successfully added.
+	 */
+	public boolean putValue(final K key, final int value) {
+		final boolean result;
+		synchronized (keyLock(key)) {
+			result = getValues(key).add(value);
+			if (result) {
+				addToCount(value, 1);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Adds values for a given key.
+	 *
+	 * @param key
+	 *            The key to add the new values to.
+	 * @param values
+	 *            The values to add.
+	 * @return {@code true} if at least one value was successfully added.
+	 */
+	public boolean putValues(final K key, final IntCollection values) {
+		boolean result = false;
+		synchronized (keyLock(key)) {
+			final C keyValues = getValues(key);
+			for (final IntIterator iter = values.iterator(); iter.hasNext();) {
+				final int value = iter.nextInt();
+				if (keyValues.add(value)) {
+					addToCount(value, 1);
+					result = true;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes a given value mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to remove the given mapped value for.
+	 * @param value
+	 *            The value to remove from the {@link IntCollection} of values
+	 *            mapped to the given key.
+	 * @return {@code true} iff the value was successfully removed.
+	 */
+	public boolean removeValue(final K key, final int value) {
+		boolean result = false;
+		synchronized (keyLock(key)) {
+			final C keyValues = decorated.get(key);
+			if (keyValues != null && keyValues.rem(value)) {
+				addToCount(value, -1);
+				result = true;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Removes given values mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to remove the given mapped value for.
+	 * @param values
+	 *            The values to remove from the {@link IntCollection} of values
+	 *            mapped to the given key.
+	 * @return {@code true} if at least one value was successfully removed.
+	 */
+	public boolean removeValues(final K key, final IntCollection values) {
+		boolean result = false;
+		synchronized (keyLock(key)) {
+			final C keyValues = decorated.get(key);
+			if (keyValues != null) {
+				for (final IntIterator iter = values.iterator(); iter.hasNext();) {
+					final int value = iter.nextInt();
+					if (keyValues.rem(value)) {
+						addToCount(value, -1);
+						result = true;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of keys in the map.
+	 */
+	public int size() {
+		return decorated.size();
+	}
+
+	/**
+	 * Copies the map to an ordinary {@link MultiValueObject2IntMap}, which
+	 * should only be done once no other thread is modifying it. The value
+	 * collections are not copied but moved to the new map.
+	 *
+	 * @return A new {@code MultiValueObject2IntMap} backed by a
+	 *         {@link HashMap}.
+	 */
+	public MultiValueObject2IntMap<K, C> toMultiValueObject2IntMap() {
+		return new MultiValueObject2IntMap<>(new HashMap<>(decorated), valueCollectionFactory);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(64);
+		builder.append("ConcurrentMultiValueObject2IntMap [size=");
+		builder.append(size());
+		builder.append(", stripeCount=");
+		builder.append(keyLocks.length);
+		builder.append(']');
+		return builder.toString();
+	}
+
+	/**
+	 * Counts the keys a given value is mapped to.
+	 *
+	 * @param value
+	 *            The value to count.
+	 * @return The number of occurrences of the value in the value collections
+	 *         of all keys, which for sets of values is the number of keys
+	 *         mapped to it.
+	 */
+	public int valueFrequency(final int value) {
+		final Int2IntOpenHashMap counts = valueCounts[valueStripe(value)];
+		final int result;
+		synchronized (counts) {
+			result = counts.get(value);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds to the count of a value; The lock of the stripe of each key whose
+	 * values are being changed is always taken before the lock of a value
+	 * stripe, so the two kinds of locks cannot deadlock.
+	 */
+	private void addToCount(final int value, final int incr) {
+		final Int2IntOpenHashMap counts = valueCounts[valueStripe(value)];
+		synchronized (counts) {
+			final int oldCount = counts.addTo(value, incr);
+			if (oldCount + incr == 0) {
+				counts.remove(value);
+			}
+		}
+	}
+
+	/**
+	 * Gets the value collection of a key, creating it if it is absent; This
+	 * must only be called while holding the lock of the key.
+	 */
+	private C getValues(final K key) {
+		C result = decorated.get(key);
+		if (result == null) {
+			result = valueCollectionFactory.get();
+			decorated.put(key, result);
+		}
+		return result;
+	}
+
+	private Object keyLock(final Object key) {
+		return keyLocks[stripe(HashCommon.mix(key.hashCode()))];
+	}
+
+	private int stripe(final int hash) {
+		// Use the high bits of the hash for the stripe because the low bits
+		// are used for the slot in the hash table of the stripe
+		return stripeShift == Integer.SIZE ? 0 : hash >>> stripeShift;
+	}
+
+	private int valueStripe(final int value) {
+		return stripe(HashCommon.mix(value));
+	}
+
+}
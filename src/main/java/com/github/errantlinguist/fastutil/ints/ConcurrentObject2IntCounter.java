@@ -0,0 +1,258 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.util.Collection;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+
+/**
+ * A thread-safe counter of the occurrences of elements, e.g.&nbsp;of tokens
+ * read by many threads at once, which is a concurrent counterpart of calling
+ * {@link Object2IntOpenHashMap#addTo(Object, int)} on a single map.
+ * <p>
+ * The counts are split into a fixed number of shards, each an
+ * {@code Object2IntOpenHashMap} guarded by its own lock, so threads counting
+ * different elements rarely block each other. Counting a batch of elements
+ * with {@link #incrementAll(Collection)} first counts them in a map local to
+ * the calling thread without any locking, and then merges the local counts
+ * into each shard while taking its lock only once, so large batches from
+ * many threads contend very little.
+ * </p>
+ * <p>
+ * A {@link #snapshot() snapshot} holds the locks of all shards at once and
+ * therefore reflects every count added before it and none added after it;
+ * The counts of a single batch are merged one shard at a time, however, so a
+ * snapshot taken while a batch is being merged may contain only part of it.
+ * </p>
+ *
+ * @param <K>
+ *            The type of the elements to count.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class ConcurrentObject2IntCounter<K> {
+
+	/**
+	 * The maximum number of shards, which bounds the number of locks held at
+	 * once while taking a snapshot.
+	 */
+	private static final int MAX_SHARD_COUNT = 1 << 8;
+
+	@SuppressWarnings("unchecked")
+	private static <K> Object2IntOpenHashMap<K>[] createShardArray(final int length) {
+		// The array only ever holds maps with the given key type
+		return (Object2IntOpenHashMap<K>[]) new Object2IntOpenHashMap<?>[length];
+	}
+
+	/**
+	 * The number of bits to shift a mixed hash right by in order to get its
+	 * shard.
+	 */
+	private final int shardShift;
+
+	/**
+	 * The counts of the elements in each shard, each of which is only
+	 * accessed while holding its own lock.
+	 */
+	private final Object2IntOpenHashMap<K>[] shards;
+
+	/**
+	 * Creates a new counter with a default number of shards.
+	 */
+	public ConcurrentObject2IntCounter() {
+		this(Hash.DEFAULT_INITIAL_SIZE, 64);
+	}
+
+	/**
+	 * Creates a new counter.
+	 *
+	 * @param expected
+	 *            The expected number of distinct elements.
+	 * @param concurrencyLevel
+	 *            The expected number of threads concurrently counting
+	 *            elements, which is used for determining the number of shards.
+	 */
+	public ConcurrentObject2IntCounter(final int expected, final int concurrencyLevel) {
+		if (expected < 0) {
+			throw new IllegalArgumentException("The expected number of elements must be nonnegative");
+		}
+		if (concurrencyLevel <= 0) {
+			throw new IllegalArgumentException("Concurrency level must be positive");
+		}
+		final int shardCount = HashCommon.nextPowerOfTwo(Math.min(concurrencyLevel, MAX_SHARD_COUNT));
+		shardShift = Integer.SIZE - Integer.numberOfTrailingZeros(shardCount);
+		final Object2IntOpenHashMap<K>[] shards = createShardArray(shardCount);
+		final int expectedPerShard = expected / shardCount + 1;
+		for (int i = 0; i < shardCount; ++i) {
+			shards[i] = new Object2IntOpenHashMap<>(expectedPerShard);
+		}
+		this.shards = shards;
+	}
+
+	/**
+	 * Adds the counts of a map of elements, e.g.&nbsp;of elements counted by a
+	 * single thread, taking the lock of each shard only once.
+	 *
+	 * @param counts
+	 *            The {@link Object2IntMap} of counts to add.
+	 */
+	public void addAll(final Object2IntMap<? extends K> counts) {
+		final Object2IntOpenHashMap<K>[] shardCounts = createShardArray(shards.length);
+		for (final Object2IntMap.Entry<? extends K> entry : counts.object2IntEntrySet()) {
+			final K key = entry.getKey();
+			final int shardIdx = shard(key);
+			Object2IntOpenHashMap<K> keyShardCounts = shardCounts[shardIdx];
+			if (keyShardCounts == null) {
+				keyShardCounts = new Object2IntOpenHashMap<>();
+				shardCounts[shardIdx] = keyShardCounts;
+			}
+			keyShardCounts.addTo(key, entry.getIntValue());
+		}
+		merge(shardCounts);
+	}
+
+	/**
+	 * Adds to the count of an element.
+	 *
+	 * @param key
+	 *            The element to count.
+	 * @param incr
+	 *            The amount to add to its count.
+	 * @return The count of the element before adding to it.
+	 */
+	public int addTo(final K key, final int incr) {
+		final Object2IntOpenHashMap<K> shard = shards[shard(key)];
+		final int result;
+		synchronized (shard) {
+			result = shard.addTo(key, incr);
+			if (result + incr == 0) {
+				shard.removeInt(key);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param key
+	 *            The element to get the count of.
+	 * @return The number of times the element was counted.
+	 */
+	public int getInt(final Object key) {
+		final Object2IntOpenHashMap<K> shard = shards[shard(key)];
+		final int result;
+		synchronized (shard) {
+			result = shard.getInt(key);
+		}
+		return result;
+	}
+
+	/**
+	 * Counts one occurrence of each of a batch of elements.
+	 *
+	 * @param keys
+	 *            The elements to count, which may contain the same element
+	 *            more than once.
+	 */
+	public void incrementAll(final Collection<? extends K> keys) {
+		final Object2IntOpenHashMap<K>[] shardCounts = createShardArray(shards.length);
+		for (final K key : keys) {
+			final int shardIdx = shard(key);
+			Object2IntOpenHashMap<K> keyShardCounts = shardCounts[shardIdx];
+			if (keyShardCounts == null) {
+				keyShardCounts = new Object2IntOpenHashMap<>();
+				shardCounts[shardIdx] = keyShardCounts;
+			}
+			keyShardCounts.addTo(key, 1);
+		}
+		merge(shardCounts);
+	}
+
+	/**
+	 * Copies the counts of all elements at a single point in time.
+	 *
+	 * @return A new {@link Object2IntOpenHashMap} of the counts of all
+	 *         elements with a non-zero count.
+	 */
+	public Object2IntOpenHashMap<K> snapshot() {
+		final Object2IntOpenHashMap<K> result = new Object2IntOpenHashMap<>();
+		snapshot(0, result);
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(64);
+		builder.append("ConcurrentObject2IntCounter [shardCount=");
+		builder.append(shards.length);
+		builder.append(']');
+		return builder.toString();
+	}
+
+	/**
+	 * Merges the counts local to the calling thread into the shards.
+	 *
+	 * @param shardCounts
+	 *            The counts of the elements of each shard, which are
+	 *            {@code null} for shards with no counts to merge.
+	 */
+	private void merge(final Object2IntOpenHashMap<K>[] shardCounts) {
+		for (int i = 0; i < shardCounts.length; ++i) {
+			final Object2IntOpenHashMap<K> counts = shardCounts[i];
+			if (counts != null) {
+				final Object2IntOpenHashMap<K> shard = shards[i];
+				synchronized (shard) {
+					Object2IntMapValueArithmetic.addValues(shard, counts);
+				}
+			}
+		}
+	}
+
+	private int shard(final Object key) {
+		// Use the high bits of the hash for the shard because the low bits
+		// are used for the slot in the hash table of the shard
+		return shardShift == Integer.SIZE ? 0 : HashCommon.mix(key.hashCode()) >>> shardShift;
+	}
+
+	/**
+	 * Takes the lock of a shard and of all shards after it in order and then
+	 * copies their counts, so that the locks are always taken in the same
+	 * order and no shard can change until all have been copied.
+	 *
+	 * @param shardIdx
+	 *            The index of the shard to lock.
+	 * @param result
+	 *            The map to copy the counts to.
+	 */
+	private void snapshot(final int shardIdx, final Object2IntOpenHashMap<K> result) {
+		if (shardIdx < shards.length) {
+			final Object2IntOpenHashMap<K> shard = shards[shardIdx];
+			synchronized (shard) {
+				snapshot(shardIdx + 1, result);
+				result.putAll(shard);
+			}
+		}
+	}
+
+}
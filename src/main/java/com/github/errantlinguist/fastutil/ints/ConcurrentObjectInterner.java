@@ -0,0 +1,369 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * A thread-safe, append-only mapping of elements to dense {@code int}
+ * indices, i.e.&nbsp;a vocabulary in which each distinct element is assigned
+ * the next index the first time it is seen, as when
+ * {@link ReverseLookupOrderedSet#add(Object) adding} an element to a
+ * {@link ReverseLookupOrderedSet} and then getting its
+ * {@link ReverseLookupOrderedSet#indexOf(Object) index}. Indices are stable,
+ * and every index from {@code 0} to {@code size() - 1} is assigned to exactly
+ * one element.
+ * <p>
+ * The element-to-index hash table is split into independently-locked
+ * segments, each an open-addressed table of indices whose slots are read
+ * atomically: Looking up an element which already has an index never takes a
+ * lock, and assigning a new index only locks the segment of the element.
+ * Elements are stored in a chunked array which is never copied, so
+ * {@link #get(int)} is wait-free.
+ * </p>
+ *
+ * @param <E>
+ *            The type of the elements.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class ConcurrentObjectInterner<E> {
+
+	/**
+	 * An independently-locked part of the hash table.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private static final class Segment {
+
+		/**
+		 * The number of indices in {@link #table the table}, which is only
+		 * accessed while holding the lock on the segment.
+		 */
+		private int count;
+
+		/**
+		 * The number of indices above which {@link #table the table} is grown,
+		 * which is only accessed while holding the lock on the segment.
+		 */
+		private int maxFill;
+
+		/**
+		 * The open-addressed table of element indices, using linear probing;
+		 * Empty slots are {@link ConcurrentObjectInterner#EMPTY}. A table is
+		 * replaced rather than modified when it is grown, so readers can
+		 * continue to use an old table.
+		 */
+		private volatile AtomicIntegerArray table;
+
+		private Segment(final int tableSize, final float loadFactor) {
+			table = createTable(tableSize);
+			maxFill = HashCommon.maxFill(tableSize, loadFactor);
+		}
+	}
+
+	/**
+	 * The number of bits of the size of the first element chunk; Each
+	 * subsequent chunk is twice as large as the previous.
+	 */
+	private static final int FIRST_CHUNK_BITS = 6;
+
+	/**
+	 * The value of a table slot which does not refer to any element.
+	 */
+	private static final int EMPTY = -1;
+
+	private static final int MAX_SEGMENT_COUNT = 1 << 16;
+
+	private static AtomicIntegerArray createTable(final int tableSize) {
+		final AtomicIntegerArray result = new AtomicIntegerArray(tableSize);
+		for (int i = 0; i < tableSize; ++i) {
+			result.lazySet(i, EMPTY);
+		}
+		return result;
+	}
+
+	private static int hash(final Object element) {
+		return HashCommon.mix(element.hashCode());
+	}
+
+	/**
+	 * The chunks of the array of elements indexed by their assigned indices.
+	 */
+	private final AtomicReferenceArray<AtomicReferenceArray<Object>> elementChunks;
+
+	private final float loadFactor;
+
+	/**
+	 * The next index to assign.
+	 */
+	private final AtomicInteger nextIndex;
+
+	/**
+	 * The number of bits to shift an element hash right by in order to get
+	 * the index of its {@link Segment}.
+	 */
+	private final int segmentShift;
+
+	private final Segment[] segments;
+
+	/**
+	 * Creates a new, empty interner with a default number of segments.
+	 */
+	public ConcurrentObjectInterner() {
+		this(Hash.DEFAULT_INITIAL_SIZE, 64);
+	}
+
+	/**
+	 * Creates a new, empty interner.
+	 *
+	 * @param expected
+	 *            The expected number of elements.
+	 * @param concurrencyLevel
+	 *            The expected number of threads concurrently assigning new
+	 *            indices, which is used for determining the number of
+	 *            independently-locked segments of the hash table.
+	 */
+	public ConcurrentObjectInterner(final int expected, final int concurrencyLevel) {
+		this(expected, concurrencyLevel, Hash.DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Creates a new, empty interner.
+	 *
+	 * @param expected
+	 *            The expected number of elements.
+	 * @param concurrencyLevel
+	 *            The expected number of threads concurrently assigning new
+	 *            indices, which is used for determining the number of
+	 *            independently-locked segments of the hash table.
+	 * @param loadFactor
+	 *            The load factor of the hash table segments.
+	 */
+	public ConcurrentObjectInterner(final int expected, final int concurrencyLevel, final float loadFactor) {
+		if (loadFactor <= 0 || loadFactor >= 1) {
+			throw new IllegalArgumentException("Load factor must be greater than 0 and smaller than 1");
+		}
+		if (expected < 0) {
+			throw new IllegalArgumentException("The expected number of elements must be nonnegative");
+		}
+		if (concurrencyLevel <= 0) {
+			throw new IllegalArgumentException("Concurrency level must be positive");
+		}
+		this.loadFactor = loadFactor;
+		final int segmentCount = HashCommon.nextPowerOfTwo(Math.min(concurrencyLevel, MAX_SEGMENT_COUNT));
+		segmentShift = Integer.SIZE - Integer.numberOfTrailingZeros(segmentCount);
+		segments = new Segment[segmentCount];
+		final int segmentTableSize = HashCommon.arraySize(Math.max(1, expected / segmentCount), loadFactor);
+		for (int i = 0; i < segmentCount; ++i) {
+			segments[i] = new Segment(segmentTableSize, loadFactor);
+		}
+		elementChunks = new AtomicReferenceArray<>(Integer.SIZE - FIRST_CHUNK_BITS);
+		nextIndex = new AtomicInteger();
+	}
+
+	/**
+	 * Checks if a given element has been assigned an index; This method never
+	 * blocks.
+	 *
+	 * @param o
+	 *            The element to check.
+	 * @return {@code true} iff the element has an index.
+	 */
+	public boolean contains(final Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/**
+	 * Gets the element with a given index; This method is wait-free.
+	 *
+	 * @param index
+	 *            The index of the element to get, which was returned by
+	 *            {@link #getOrAssignIndex(Object)} or {@link #indexOf(Object)}.
+	 * @return The element with the given index.
+	 * @throws IndexOutOfBoundsException
+	 *             If no element has been assigned the given index.
+	 */
+	@SuppressWarnings("unchecked")
+	public E get(final int index) {
+		final Object result;
+		if (index < 0 || index >= nextIndex.get()) {
+			result = null;
+		} else {
+			final int offsetIndex = index + (1 << FIRST_CHUNK_BITS);
+			final int chunkIdx = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(offsetIndex) - FIRST_CHUNK_BITS;
+			final AtomicReferenceArray<Object> chunk = elementChunks.get(chunkIdx);
+			result = chunk == null ? null
+					: chunk.get(offsetIndex - (1 << chunkIdx + FIRST_CHUNK_BITS));
+		}
+		if (result == null) {
+			// The index either has not been assigned or is currently being
+			// assigned by another thread and so could not have been returned
+			// to the caller yet
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size()));
+		}
+		return (E) result;
+	}
+
+	/**
+	 * Gets the index of a given element, assigning it the next index if it
+	 * does not already have one.
+	 *
+	 * @param element
+	 *            The element to get the index of.
+	 * @return The index of the element.
+	 * @throws NullPointerException
+	 *             If the element is {@code null}.
+	 */
+	public int getOrAssignIndex(final E element) {
+		final int hash = hash(Objects.requireNonNull(element));
+		final Segment segment = segments[segmentIdx(hash)];
+		int result = find(segment.table, element, hash);
+		if (result < 0) {
+			synchronized (segment) {
+				// Check again because another thread may have assigned an index
+				// after the unlocked lookup
+				AtomicIntegerArray table = segment.table;
+				final int mask = table.length() - 1;
+				int slot = hash & mask;
+				for (int index; (index = table.get(slot)) != EMPTY; slot = slot + 1 & mask) {
+					if (element.equals(getAssigned(index))) {
+						return index;
+					}
+				}
+				result = nextIndex.getAndIncrement();
+				// Store the element before publishing its index so that any
+				// thread which reads the index also sees the element
+				setElement(result, element);
+				table.set(slot, result);
+				if (++segment.count >= segment.maxFill) {
+					table = rehash(table, HashCommon.arraySize(segment.count + 1, loadFactor));
+					segment.maxFill = HashCommon.maxFill(table.length(), loadFactor);
+					segment.table = table;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the index of a given element; This method never blocks.
+	 *
+	 * @param o
+	 *            The element to get the index of.
+	 * @return The index of the element or {@code -1} if it has not been
+	 *         assigned an index.
+	 */
+	public int indexOf(final Object o) {
+		final int result;
+		if (o == null) {
+			result = -1;
+		} else {
+			final int hash = hash(o);
+			result = find(segments[segmentIdx(hash)].table, o, hash);
+		}
+		return result;
+	}
+
+	/**
+	 * @return The number of indices assigned so far.
+	 */
+	public int size() {
+		return nextIndex.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final StringBuilder builder = new StringBuilder(64);
+		builder.append("ConcurrentObjectInterner [size=");
+		builder.append(size());
+		builder.append(", segmentCount=");
+		builder.append(segments.length);
+		builder.append(']');
+		return builder.toString();
+	}
+
+	private int find(final AtomicIntegerArray table, final Object o, final int hash) {
+		final int mask = table.length() - 1;
+		for (int slot = hash & mask, index; (index = table.get(slot)) != EMPTY; slot = slot + 1 & mask) {
+			if (o.equals(getAssigned(index))) {
+				return index;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Gets the element with an index which has been read from a segment
+	 * table, meaning that the element is guaranteed to have been stored.
+	 *
+	 * @param index
+	 *            The index of the element.
+	 * @return The element with the given index.
+	 */
+	private Object getAssigned(final int index) {
+		final int offsetIndex = index + (1 << FIRST_CHUNK_BITS);
+		final int chunkIdx = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(offsetIndex) - FIRST_CHUNK_BITS;
+		return elementChunks.get(chunkIdx).get(offsetIndex - (1 << chunkIdx + FIRST_CHUNK_BITS));
+	}
+
+	private AtomicIntegerArray rehash(final AtomicIntegerArray table, final int newTableSize) {
+		final AtomicIntegerArray result = createTable(newTableSize);
+		final int newMask = newTableSize - 1;
+		for (int i = 0; i < table.length(); ++i) {
+			final int index = table.get(i);
+			if (index != EMPTY) {
+				int slot = hash(getAssigned(index)) & newMask;
+				while (result.get(slot) != EMPTY) {
+					slot = slot + 1 & newMask;
+				}
+				result.lazySet(slot, index);
+			}
+		}
+		return result;
+	}
+
+	private int segmentIdx(final int hash) {
+		// Use the high bits of the hash for the segment because the low bits
+		// are used for the slot in the segment table
+		return segmentShift == Integer.SIZE ? 0 : hash >>> segmentShift;
+	}
+
+	private void setElement(final int index, final E element) {
+		final int offsetIndex = index + (1 << FIRST_CHUNK_BITS);
+		final int chunkIdx = Integer.SIZE - 1 - Integer.numberOfLeadingZeros(offsetIndex) - FIRST_CHUNK_BITS;
+		AtomicReferenceArray<Object> chunk = elementChunks.get(chunkIdx);
+		if (chunk == null) {
+			// Another thread may be creating the same chunk concurrently
+			elementChunks.compareAndSet(chunkIdx, null, new AtomicReferenceArray<>(1 << chunkIdx + FIRST_CHUNK_BITS));
+			chunk = elementChunks.get(chunkIdx);
+		}
+		chunk.set(offsetIndex - (1 << chunkIdx + FIRST_CHUNK_BITS), element);
+	}
+
+}
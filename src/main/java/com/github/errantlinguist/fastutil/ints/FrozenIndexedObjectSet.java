@@ -0,0 +1,379 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * An immutable combined {@link List} and {@link Set} implementation which maps
+ * its elements to their indices using a minimal perfect hash function rather
+ * than a hash table, for vocabularies which no longer change once they have
+ * been built, e.g.&nbsp;by {@link ReverseLookupOrderedSet#freeze()}.
+ * <p>
+ * The hash function is built using the &ldquo;hash and displace&rdquo;
+ * method: The elements are distributed over buckets, and each bucket is
+ * assigned a pilot value such that hashing the elements in the bucket together
+ * with its pilot puts them into slots not used by any other element. Each slot
+ * has the index of its element and a 16-bit fingerprint of the element hash,
+ * so that looking up an element which is not in the set almost never needs
+ * to compare it with an element which is. Looking up an element therefore
+ * takes a bucket pilot, a fingerprint and an index lookup, and the set takes
+ * about seven bytes per element in addition to the array of elements itself.
+ * </p>
+ * <p>
+ * Elements with equal {@link Object#hashCode() hash codes} cannot be told apart
+ * by any function of their hash codes and so share a single slot which refers
+ * to a list of their indices.
+ * </p>
+ *
+ * @param <E>
+ *            The type of the elements of the set.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class FrozenIndexedObjectSet<E> extends AbstractList<E> implements RandomAccess, Serializable, Set<E> {
+
+	/**
+	 * The average number of hash codes per bucket: Larger buckets need less
+	 * space for pilots but take longer to build.
+	 */
+	private static final int AVERAGE_BUCKET_SIZE = 4;
+
+	/**
+	 * The multiplier for spreading pilot values over the bits of a key hash.
+	 */
+	private static final long PILOT_MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 6032270563582271438L;
+
+	private static int bucket(final long keyHash, final int bucketCount) {
+		return (int) ((keyHash >>> 32) * bucketCount >>> 32);
+	}
+
+	private static int elementHashCode(final Object element) {
+		return element == null ? 0 : element.hashCode();
+	}
+
+	private static long keyHash(final int hashCode) {
+		return HashCommon.murmurHash3((long) hashCode);
+	}
+
+	private static int slot(final long keyHash, final int pilot, final int slotCount) {
+		final long hash = HashCommon.murmurHash3(keyHash ^ (pilot + 1L) * PILOT_MULTIPLIER);
+		return (int) ((hash >>> 32) * slotCount >>> 32);
+	}
+
+	/**
+	 * Runs of the indices of elements with equal hash codes, each preceded by
+	 * its length.
+	 */
+	private transient int[] collisions;
+
+	/**
+	 * The elements of the set in order.
+	 */
+	private transient Object[] elements;
+
+	/**
+	 * The fingerprint of the key hash in each slot.
+	 */
+	private transient short[] fingerprints;
+
+	/**
+	 * The pilot of each bucket.
+	 */
+	private transient int[] pilots;
+
+	/**
+	 * The index of the element in each slot or, for elements with equal hash
+	 * codes, the bitwise complement of the offset of their run in
+	 * {@link #collisions}.
+	 */
+	private transient int[] slotIndices;
+
+	/**
+	 * Creates a new set containing the elements of a given {@link Collection}
+	 * in the order they are iterated over.
+	 *
+	 * @param c
+	 *            The {@code Collection} of elements to add.
+	 * @throws IllegalArgumentException
+	 *             If the {@code Collection} contains non-unique elements.
+	 */
+	public FrozenIndexedObjectSet(final Collection<? extends E> c) {
+		elements = c.toArray();
+		build();
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof FrozenIndexedObjectSet<?>) {
+			result = super.equals(obj);
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(final int index) {
+		return (E) elements[index];
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		int result = -1;
+		if (elements.length > 0) {
+			final long keyHash = keyHash(elementHashCode(o));
+			final int slot = slot(keyHash, pilots[bucket(keyHash, pilots.length)], slotIndices.length);
+			if (fingerprints[slot] == (short) keyHash) {
+				final int index = slotIndices[slot];
+				if (index >= 0) {
+					if (Objects.equals(o, elements[index])) {
+						result = index;
+					}
+				} else {
+					final int runStart = ~index + 1;
+					final int runEnd = runStart + collisions[~index];
+					for (int i = runStart; i < runEnd; ++i) {
+						if (Objects.equals(o, elements[collisions[i]])) {
+							result = collisions[i];
+							break;
+						}
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return elements.length == 0;
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public int size() {
+		return elements.length;
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.IMMUTABLE);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return elements.clone();
+	}
+
+	/**
+	 * Builds the minimal perfect hash function for {@link #elements}.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the elements are not unique.
+	 */
+	private void build() {
+		// Sort the element indices by hash code so that elements with equal hash
+		// codes, which get the same slot, are adjacent
+		final long[] codeIndices = new long[elements.length];
+		for (int index = 0; index < elements.length; ++index) {
+			codeIndices[index] = (long) elementHashCode(elements[index]) << 32 | index;
+		}
+		Arrays.sort(codeIndices);
+
+		// Group the indices by hash code, with each group being a key of the
+		// hash function
+		final int[] keyStarts = new int[elements.length + 1];
+		int keyCount = 0;
+		int collisionsLength = 0;
+		for (int i = 0; i < codeIndices.length; ++i) {
+			if (i == 0 || codeIndices[i] >>> 32 != codeIndices[i - 1] >>> 32) {
+				keyStarts[keyCount++] = i;
+			} else {
+				final int index = (int) codeIndices[i];
+				for (int j = keyStarts[keyCount - 1]; j < i; ++j) {
+					if (Objects.equals(elements[index], elements[(int) codeIndices[j]])) {
+						throw new IllegalArgumentException("Collection contains non-unique elements.");
+					}
+				}
+				// Make room for the run length and the indices of both the first
+				// and the second element of a group on its first collision and
+				// for one more index on each subsequent collision
+				collisionsLength += i - keyStarts[keyCount - 1] == 1 ? 3 : 1;
+			}
+		}
+		keyStarts[keyCount] = codeIndices.length;
+
+		// Distribute the keys over buckets
+		final int bucketCount = Math.max(1, (keyCount + AVERAGE_BUCKET_SIZE - 1) / AVERAGE_BUCKET_SIZE);
+		final long[] keyHashes = new long[keyCount];
+		final int[] bucketStarts = new int[bucketCount + 1];
+		for (int key = 0; key < keyCount; ++key) {
+			keyHashes[key] = keyHash((int) (codeIndices[keyStarts[key]] >> 32));
+			++bucketStarts[bucket(keyHashes[key], bucketCount) + 1];
+		}
+		int maxBucketSize = 0;
+		for (int bucket = 0; bucket < bucketCount; ++bucket) {
+			maxBucketSize = Math.max(maxBucketSize, bucketStarts[bucket + 1]);
+			bucketStarts[bucket + 1] += bucketStarts[bucket];
+		}
+		final int[] bucketKeys = new int[keyCount];
+		{
+			final int[] bucketFill = Arrays.copyOf(bucketStarts, bucketCount);
+			for (int key = 0; key < keyCount; ++key) {
+				bucketKeys[bucketFill[bucket(keyHashes[key], bucketCount)]++] = key;
+			}
+		}
+
+		// Find the pilots of the largest buckets first, while there are still
+		// many free slots
+		final int[] bucketOrder = new int[bucketCount];
+		{
+			final int[] sizeStarts = new int[maxBucketSize + 2];
+			for (int bucket = 0; bucket < bucketCount; ++bucket) {
+				++sizeStarts[maxBucketSize - (bucketStarts[bucket + 1] - bucketStarts[bucket]) + 1];
+			}
+			for (int i = 1; i < sizeStarts.length; ++i) {
+				sizeStarts[i] += sizeStarts[i - 1];
+			}
+			for (int bucket = 0; bucket < bucketCount; ++bucket) {
+				bucketOrder[sizeStarts[maxBucketSize - (bucketStarts[bucket + 1] - bucketStarts[bucket])]++] = bucket;
+			}
+		}
+		pilots = new int[bucketCount];
+		slotIndices = new int[keyCount];
+		fingerprints = new short[keyCount];
+		collisions = new int[collisionsLength];
+		final boolean[] taken = new boolean[keyCount];
+		final int[] bucketSlots = new int[maxBucketSize];
+		int collisionsEnd = 0;
+		for (final int bucket : bucketOrder) {
+			final int bucketStart = bucketStarts[bucket];
+			final int bucketSize = bucketStarts[bucket + 1] - bucketStart;
+			if (bucketSize < 1) {
+				// All subsequent buckets are empty as well
+				break;
+			}
+			int pilot = 0;
+			for (int placedCount = 0; placedCount < bucketSize; ++pilot) {
+				for (placedCount = 0; placedCount < bucketSize; ++placedCount) {
+					final int slot = slot(keyHashes[bucketKeys[bucketStart + placedCount]], pilot, keyCount);
+					if (taken[slot]) {
+						break;
+					}
+					taken[slot] = true;
+					bucketSlots[placedCount] = slot;
+				}
+				if (placedCount < bucketSize) {
+					for (int i = 0; i < placedCount; ++i) {
+						taken[bucketSlots[i]] = false;
+					}
+				}
+			}
+			pilots[bucket] = pilot - 1;
+
+			for (int i = 0; i < bucketSize; ++i) {
+				final int key = bucketKeys[bucketStart + i];
+				final int slot = bucketSlots[i];
+				fingerprints[slot] = (short) keyHashes[key];
+				final int keyStart = keyStarts[key];
+				final int keySize = keyStarts[key + 1] - keyStart;
+				if (keySize == 1) {
+					slotIndices[slot] = (int) codeIndices[keyStart];
+				} else {
+					slotIndices[slot] = ~collisionsEnd;
+					collisions[collisionsEnd++] = keySize;
+					for (int j = keyStart; j < keyStart + keySize; ++j) {
+						collisions[collisionsEnd++] = (int) codeIndices[j];
+					}
+				}
+			}
+		}
+		assert collisionsEnd == collisionsLength;
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int size = in.readInt();
+		elements = new Object[size];
+		for (int index = 0; index < size; ++index) {
+			elements[index] = in.readObject();
+		}
+		// Element hash codes are not necessarily the same in another JVM, so
+		// the hash function must be rebuilt
+		try {
+			build();
+		} catch (final IllegalArgumentException e) {
+			final InvalidObjectException ex = new InvalidObjectException(e.getLocalizedMessage());
+			ex.initCause(e);
+			throw ex;
+		}
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(elements.length);
+		for (final Object element : elements) {
+			out.writeObject(element);
+		}
+	}
+
+}
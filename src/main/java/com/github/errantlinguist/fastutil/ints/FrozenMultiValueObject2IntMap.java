@@ -0,0 +1,537 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+import java.util.Set;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+
+/**
+ * An immutable snapshot of a {@link MultiValueObject2IntMap} in compressed
+ * sparse row layout, e.g.&nbsp;as created by
+ * {@link MultiValueObject2IntMap#freeze()}: The keys are mapped to slots by a
+ * {@link FrozenIndexedObjectSet}, and the values of all keys are stored
+ * contiguously in a single {@code int} array in slot order, with the values
+ * of the key in slot <em>i</em> starting at {@code offsets[i]} and ending
+ * before {@code offsets[i + 1]}. The values of a key are returned as an
+ * {@link IntList} view of its range of the array rather than as a copy.
+ * <p>
+ * If the values of each key were {@link #isSorted() in ascending order} when
+ * the snapshot was created, as for value collections which are
+ * {@link it.unimi.dsi.fastutil.ints.IntSortedSet sorted sets}, the values of
+ * several keys can be {@link #intersect(IntArrayList, Object...) intersected}
+ * using galloping search and {@link #union(IntArrayList, Object...) united}
+ * directly on the value array.
+ * </p>
+ * <p>
+ * Since all values are in a single array, a snapshot can hold at most
+ * {@link Integer#MAX_VALUE} values.
+ * </p>
+ *
+ * @param <K>
+ *            The key type.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class FrozenMultiValueObject2IntMap<K> extends AbstractMap<K, IntList> implements Serializable {
+
+	/**
+	 * A view of the values of the key in a given slot.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class ValueList extends AbstractIntList implements RandomAccess {
+
+		/**
+		 * The index of {@link FrozenMultiValueObject2IntMap#values} of the
+		 * first value.
+		 */
+		private final int start;
+
+		/**
+		 * The number of values.
+		 */
+		private final int size;
+
+		private ValueList(final int slot) {
+			start = offsets[slot];
+			size = offsets[slot + 1] - start;
+		}
+
+		@Override
+		public void getElements(final int from, final int[] a, final int offset, final int length) {
+			if (from < 0 || length < 0 || from + length > size) {
+				throw new IndexOutOfBoundsException(
+						String.format("Range [%d, %d) out of bounds for size %d", from, from + length, size));
+			}
+			System.arraycopy(values, start + from, a, offset, length);
+		}
+
+		@Override
+		public int getInt(final int index) {
+			if (index < 0 || index >= size) {
+				throw new IndexOutOfBoundsException(String.format("Index %d out of bounds for size %d", index, size));
+			}
+			return values[start + index];
+		}
+
+		@Override
+		public int size() {
+			return size;
+		}
+
+		@Override
+		public int[] toIntArray() {
+			return Arrays.copyOfRange(values, start, start + size);
+		}
+
+	}
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = -4733590296016478311L;
+
+	/**
+	 * Finds the first element of a sorted range of an array which is not less
+	 * than a given key by first doubling the distance from the start of the
+	 * range until passing the key and then searching the last interval
+	 * binarily, which takes time logarithmic in the distance to the element
+	 * found rather than in the length of the range.
+	 *
+	 * @param a
+	 *            The array to search.
+	 * @param from
+	 *            The inclusive start of the range to search.
+	 * @param to
+	 *            The exclusive end of the range to search.
+	 * @param key
+	 *            The key to search for.
+	 * @return The index of the first element not less than the key, or
+	 *         {@code to} if there is none.
+	 */
+	private static int gallop(final int[] a, final int from, final int to, final int key) {
+		int result = from;
+		if (from < to && a[from] < key) {
+			// The element at "low" is always less than the key
+			int low = from;
+			int step = 1;
+			int high = from + 1;
+			while (high < to && a[high] < key) {
+				low = high;
+				step <<= 1;
+				high = step < to - low ? low + step : to;
+			}
+			final int idx = Arrays.binarySearch(a, low + 1, high, key);
+			result = idx < 0 ? -idx - 1 : idx;
+		}
+		return result;
+	}
+
+	/**
+	 * The keys of the map, the index of each of which is its slot.
+	 */
+	private final FrozenIndexedObjectSet<K> keys;
+
+	/**
+	 * The index of {@link #values} of the first value of the key in each
+	 * slot, followed by the total number of values.
+	 */
+	private final int[] offsets;
+
+	/**
+	 * If {@code true}, the values of each key are in strictly ascending order.
+	 */
+	private final boolean sorted;
+
+	/**
+	 * The values of all keys in slot order.
+	 */
+	private final int[] values;
+
+	/**
+	 * Creates a snapshot of a given {@link Map} of value collections, storing
+	 * the values of each key in the order they are iterated over.
+	 *
+	 * @param m
+	 *            The {@code Map} to copy.
+	 * @throws IllegalArgumentException
+	 *             If the collections have more than {@link Integer#MAX_VALUE}
+	 *             values in total.
+	 */
+	public FrozenMultiValueObject2IntMap(final Map<? extends K, ? extends IntCollection> m) {
+		final List<K> keyList = new ArrayList<>(m.size());
+		final IntCollection[] valueColls = new IntCollection[m.size()];
+		long valueCount = 0;
+		for (final Entry<? extends K, ? extends IntCollection> entry : m.entrySet()) {
+			valueColls[keyList.size()] = entry.getValue();
+			keyList.add(entry.getKey());
+			valueCount += entry.getValue().size();
+		}
+		if (valueCount > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(
+					String.format("Map has %d values, more than can be stored in a single array.", valueCount));
+		}
+		keys = new FrozenIndexedObjectSet<>(keyList);
+
+		offsets = new int[valueColls.length + 1];
+		values = new int[(int) valueCount];
+		boolean isSorted = true;
+		int end = 0;
+		for (int slot = 0; slot < valueColls.length; ++slot) {
+			final int start = end;
+			for (final IntIterator iter = valueColls[slot].iterator(); iter.hasNext();) {
+				final int value = iter.nextInt();
+				if (end > start && values[end - 1] >= value) {
+					isSorted = false;
+				}
+				values[end++] = value;
+			}
+			offsets[slot + 1] = end;
+		}
+		sorted = isSorted;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return keys.contains(key);
+	}
+
+	/**
+	 * Checks if a given value is mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to check the values of.
+	 * @param value
+	 *            The value to check.
+	 * @return {@code true} iff the given key maps to the given value.
+	 */
+	public boolean containsValue(final K key, final int value) {
+		final int slot = keys.indexOf(key);
+		boolean result = false;
+		if (slot >= 0) {
+			if (sorted) {
+				result = Arrays.binarySearch(values, offsets[slot], offsets[slot + 1], value) >= 0;
+			} else {
+				for (int i = offsets[slot]; i < offsets[slot + 1]; ++i) {
+					if (values[i] == value) {
+						result = true;
+						break;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Set<Entry<K, IntList>> entrySet() {
+		return new AbstractSet<Entry<K, IntList>>() {
+
+			@Override
+			public boolean contains(final Object o) {
+				boolean result = false;
+				if (o instanceof Entry<?, ?>) {
+					final Entry<?, ?> entry = (Entry<?, ?>) o;
+					final int slot = keys.indexOf(entry.getKey());
+					result = slot >= 0 && new ValueList(slot).equals(entry.getValue());
+				}
+				return result;
+			}
+
+			@Override
+			public Iterator<Entry<K, IntList>> iterator() {
+				return new Iterator<Entry<K, IntList>>() {
+
+					private int next = 0;
+
+					@Override
+					public boolean hasNext() {
+						return next < keys.size();
+					}
+
+					@Override
+					public Entry<K, IntList> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						final int slot = next++;
+						return new SimpleImmutableEntry<>(keys.get(slot), new ValueList(slot));
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return keys.size();
+			}
+		};
+	}
+
+	/**
+	 * @return An {@link IntList} view of the values of the key, or
+	 *         {@code null} if the map contains no mapping for the key.
+	 */
+	@Override
+	public IntList get(final Object key) {
+		final int slot = keys.indexOf(key);
+		return slot < 0 ? null : new ValueList(slot);
+	}
+
+	/**
+	 * Returns all value elements mapped to a key.
+	 *
+	 * @param key
+	 *            The key to get all the elements for.
+	 * @return An {@link IntList} view of the elements; if there is no mapping
+	 *         for the given key, then an empty {@code IntList} is returned.
+	 */
+	public IntList getValues(final K key) {
+		final int slot = keys.indexOf(key);
+		return slot < 0 ? IntLists.EMPTY_LIST : new ValueList(slot);
+	}
+
+	/**
+	 * Finds the values which are mapped to by all of a given set of keys,
+	 * starting with the key with the fewest values and searching for each
+	 * remaining candidate in the values of each other key by
+	 * {@link #gallop(int[], int, int, int) galloping}.
+	 *
+	 * @param dest
+	 *            The {@link IntArrayList} to write the values to in ascending
+	 *            order, which is cleared first so that it can be reused
+	 *            between queries.
+	 * @param keys
+	 *            The keys to intersect the values of.
+	 * @return {@code dest}; If no keys are given, it is empty.
+	 * @throws IllegalStateException
+	 *             If the values of each key are not {@link #isSorted() in
+	 *             ascending order}.
+	 */
+	@SafeVarargs
+	public final IntArrayList intersect(final IntArrayList dest, final K... keys) {
+		checkSorted();
+		dest.clear();
+		// The slots are looked up element-wise rather than passing the
+		// generic varargs array on to another method
+		final int[] slots = new int[keys.length];
+		boolean hasAllKeys = true;
+		for (int i = 0; i < keys.length && hasAllKeys; ++i) {
+			slots[i] = this.keys.indexOf(keys[i]);
+			hasAllKeys = slots[i] >= 0;
+		}
+		if (hasAllKeys && slots.length > 0) {
+			sortBySize(slots);
+			final int smallest = slots[0];
+			dest.size(offsets[smallest + 1] - offsets[smallest]);
+			final int[] candidates = dest.elements();
+			System.arraycopy(values, offsets[smallest], candidates, 0, dest.size());
+			int count = dest.size();
+			for (int i = 1; i < slots.length && count > 0; ++i) {
+				final int end = offsets[slots[i] + 1];
+				int pos = offsets[slots[i]];
+				int retained = 0;
+				for (int j = 0; j < count; ++j) {
+					final int candidate = candidates[j];
+					pos = gallop(values, pos, end, candidate);
+					if (pos == end) {
+						break;
+					}
+					if (values[pos] == candidate) {
+						candidates[retained++] = candidate;
+					}
+				}
+				count = retained;
+			}
+			dest.size(count);
+		}
+		return dest;
+	}
+
+	/**
+	 * Finds the values which are mapped to by all of a given set of keys.
+	 *
+	 * @param keys
+	 *            The keys to intersect the values of.
+	 * @return The values in ascending order.
+	 * @throws IllegalStateException
+	 *             If the values of each key are not {@link #isSorted() in
+	 *             ascending order}.
+	 * @see #intersect(IntArrayList, Object...)
+	 */
+	@SafeVarargs
+	public final int[] intersect(final K... keys) {
+		return intersect(new IntArrayList(), keys).toIntArray();
+	}
+
+	/**
+	 * @return {@code true} iff the values of each key are in strictly ascending
+	 *         order, which is required for {@link #intersect(Object...)} and
+	 *         {@link #union(Object...)}.
+	 */
+	public boolean isSorted() {
+		return sorted;
+	}
+
+	/**
+	 * @return The keys of the map in slot order.
+	 */
+	@Override
+	public Set<K> keySet() {
+		return keys;
+	}
+
+	@Override
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * Finds the values which are mapped to by any of a given set of keys by
+	 * merging their value ranges.
+	 *
+	 * @param dest
+	 *            The {@link IntArrayList} to write the values to in ascending
+	 *            order, which is cleared first so that it can be reused
+	 *            between queries.
+	 * @param keys
+	 *            The keys to unite the values of.
+	 * @return {@code dest}.
+	 * @throws IllegalStateException
+	 *             If the values of each key are not {@link #isSorted() in
+	 *             ascending order}.
+	 */
+	@SafeVarargs
+	public final IntArrayList union(final IntArrayList dest, final K... keys) {
+		checkSorted();
+		dest.clear();
+		// The slots are looked up element-wise rather than passing the
+		// generic varargs array on to another method, with keys not in the
+		// map having a negative slot
+		final int[] slots = new int[keys.length];
+		for (int i = 0; i < keys.length; ++i) {
+			slots[i] = this.keys.indexOf(keys[i]);
+		}
+		// The position of the current value of each key's range, which is the
+		// head of the range, and the end of each range
+		final int[] positions = new int[slots.length];
+		final int[] ends = new int[slots.length];
+		final int[] heads = new int[slots.length];
+		// A min-heap of the indices of the ranges ordered by their heads
+		final int[] heap = new int[slots.length];
+		int heapSize = 0;
+		int maxCount = 0;
+		for (final int slot : slots) {
+			if (slot >= 0 && offsets[slot] < offsets[slot + 1]) {
+				positions[heapSize] = offsets[slot];
+				ends[heapSize] = offsets[slot + 1];
+				heads[heapSize] = values[offsets[slot]];
+				heap[heapSize] = heapSize;
+				++heapSize;
+				maxCount += offsets[slot + 1] - offsets[slot];
+			}
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; --i) {
+			MultiValueObject2IntMap.siftDown(heap, heapSize, heads, i);
+		}
+
+		dest.size(maxCount);
+		final int[] united = dest.elements();
+		int count = 0;
+		while (heapSize > 0) {
+			final int least = heap[0];
+			final int value = heads[least];
+			if (count < 1 || united[count - 1] != value) {
+				united[count++] = value;
+			}
+			final int next = ++positions[least];
+			if (next < ends[least]) {
+				heads[least] = values[next];
+			} else {
+				heap[0] = heap[--heapSize];
+			}
+			MultiValueObject2IntMap.siftDown(heap, heapSize, heads, 0);
+		}
+		dest.size(count);
+		return dest;
+	}
+
+	/**
+	 * Finds the values which are mapped to by any of a given set of keys.
+	 *
+	 * @param keys
+	 *            The keys to unite the values of.
+	 * @return The values in ascending order.
+	 * @throws IllegalStateException
+	 *             If the values of each key are not {@link #isSorted() in
+	 *             ascending order}.
+	 * @see #union(IntArrayList, Object...)
+	 */
+	@SafeVarargs
+	public final int[] union(final K... keys) {
+		return union(new IntArrayList(), keys).toIntArray();
+	}
+
+	/**
+	 * @return The total number of values of all keys.
+	 */
+	public int valueCount() {
+		return values.length;
+	}
+
+	private void checkSorted() {
+		if (!sorted) {
+			throw new IllegalStateException("Values are not in ascending order.");
+		}
+	}
+
+	/**
+	 * Sorts slots by the number of values of their keys using insertion sort,
+	 * since queries have only a few keys.
+	 *
+	 * @param slots
+	 *            The slots to sort.
+	 */
+	private void sortBySize(final int[] slots) {
+		for (int i = 1; i < slots.length; ++i) {
+			final int slot = slots[i];
+			final int size = offsets[slot + 1] - offsets[slot];
+			int j = i - 1;
+			while (j >= 0 && offsets[slots[j] + 1] - offsets[slots[j]] > size) {
+				slots[j + 1] = slots[j];
+				--j;
+			}
+			slots[j + 1] = slot;
+		}
+	}
+
+}
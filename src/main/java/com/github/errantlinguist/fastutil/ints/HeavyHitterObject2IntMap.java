@@ -0,0 +1,448 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.objects.AbstractObject2IntMap;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+/**
+ * A bounded-memory counter of the occurrences of elements in an unbounded
+ * stream, e.g.&nbsp;of n-grams, which is a read-only {@link Object2IntMap}
+ * view of the approximate counts of the most frequent elements seen.
+ * <p>
+ * The counts of all elements are estimated by a Count-Min sketch with
+ * conservative update: Each element is hashed to one counter in each of
+ * {@code depth} rows of {@code width} counters, and adding to its count only
+ * raises those of its counters which are lower than its new estimate. The
+ * estimate of an element is the minimum of its counters, which is never
+ * lower than its true count and, for a sketch created with
+ * {@link #HeavyHitterObject2IntMap(double, double, int) error bounds}
+ * {@code epsilon} and {@code delta}, exceeds it by more than
+ * {@code epsilon} times {@link #totalCount() the total count} with a
+ * probability of at most {@code delta}.
+ * </p>
+ * <p>
+ * The map itself only contains the {@code capacity} elements with the
+ * highest estimates, which are kept in a min-heap so that an element whose
+ * estimate rises above that of the least heavy hitter replaces it. The
+ * estimate of any other element can still be {@link #estimate(Object)
+ * looked up}. Sketches with the same dimensions and capacity can be
+ * {@link #merge(HeavyHitterObject2IntMap) merged}, e.g.&nbsp;for counting
+ * parts of a stream separately. Once counting has finished, the
+ * {@link #heavyHitters() heavy hitters} can be promoted into an exactly
+ * counted vocabulary such as a {@link ReverseLookupOrderedSet}.
+ * </p>
+ *
+ * @param <K>
+ *            The type of the elements to count.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class HeavyHitterObject2IntMap<K> extends AbstractObject2IntMap<K> {
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = -2281370542003857613L;
+
+	/**
+	 * The maximum number of counters in a single row.
+	 */
+	private static final int MAX_WIDTH = 1 << 30;
+
+	/**
+	 * The odd constant multiplied by the index of a row in order to get the
+	 * seed of its hash function, which is the same for every sketch so that
+	 * sketches with the same dimensions can be merged.
+	 */
+	private static final int ROW_SEED_MULTIPLIER = 0x9E3779B9;
+
+	private static int depth(final double delta) {
+		if (!(delta > 0.0 && delta < 1.0)) {
+			throw new IllegalArgumentException("Delta must be in the range (0, 1)");
+		}
+		return (int) Math.ceil(Math.log(1.0 / delta));
+	}
+
+	private static int saturatedAdd(final int count, final int incr) {
+		return (int) Math.min((long) count + incr, Integer.MAX_VALUE);
+	}
+
+	private static int width(final double epsilon) {
+		if (!(epsilon > 0.0 && epsilon < 1.0)) {
+			throw new IllegalArgumentException("Epsilon must be in the range (0, 1)");
+		}
+		return (int) Math.min(Math.ceil(Math.E / epsilon), MAX_WIDTH);
+	}
+
+	/**
+	 * The maximum number of heavy hitters kept.
+	 */
+	private final int capacity;
+
+	/**
+	 * The counters of all rows, one row after another.
+	 */
+	private final int[] counters;
+
+	/**
+	 * The number of rows of counters.
+	 */
+	private final int depth;
+
+	/**
+	 * The estimated counts of the heavy hitters, in the same order as
+	 * {@link #heapKeys}.
+	 */
+	private final int[] heapCounts;
+
+	/**
+	 * The index of each heavy hitter in the heap.
+	 */
+	private final Object2IntOpenHashMap<K> heapIndices;
+
+	/**
+	 * The heavy hitters as a min-heap ordered by their estimated counts.
+	 */
+	private final K[] heapKeys;
+
+	/**
+	 * The number of heavy hitters in the heap.
+	 */
+	private int heapSize;
+
+	/**
+	 * The total of all counts added.
+	 */
+	private long totalCount;
+
+	/**
+	 * The bit mask for getting the counter of a hash in a row, whose number
+	 * of counters is a power of two.
+	 */
+	private final int widthMask;
+
+	/**
+	 * Creates a new, empty counter with given error bounds.
+	 *
+	 * @param epsilon
+	 *            The maximum overestimate of a count as a fraction of
+	 *            {@link #totalCount() the total count}.
+	 * @param delta
+	 *            The probability with which an estimate may exceed the true
+	 *            count by more than {@code epsilon} times the total count.
+	 * @param capacity
+	 *            The maximum number of heavy hitters to keep.
+	 */
+	public HeavyHitterObject2IntMap(final double epsilon, final double delta, final int capacity) {
+		this(width(epsilon), depth(delta), capacity);
+	}
+
+	/**
+	 * Creates a new, empty counter with given sketch dimensions.
+	 *
+	 * @param width
+	 *            The minimum number of counters in each row of the sketch,
+	 *            which is rounded up to a power of two.
+	 * @param depth
+	 *            The number of rows of the sketch.
+	 * @param capacity
+	 *            The maximum number of heavy hitters to keep.
+	 */
+	public HeavyHitterObject2IntMap(final int width, final int depth, final int capacity) {
+		if (width <= 0 || width > MAX_WIDTH) {
+			throw new IllegalArgumentException(String.format("Width must be in the range [1, %d]", MAX_WIDTH));
+		}
+		if (depth <= 0) {
+			throw new IllegalArgumentException("Depth must be positive");
+		}
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("Capacity must be positive");
+		}
+		final int paddedWidth = HashCommon.nextPowerOfTwo(width);
+		if ((long) paddedWidth * depth > Integer.MAX_VALUE - 8) {
+			throw new IllegalArgumentException(
+					String.format("A sketch of %d rows of %d counters is too large", depth, paddedWidth));
+		}
+		widthMask = paddedWidth - 1;
+		this.depth = depth;
+		this.capacity = capacity;
+		counters = new int[paddedWidth * depth];
+		@SuppressWarnings("unchecked")
+		final K[] heapKeys = (K[]) new Object[capacity];
+		this.heapKeys = heapKeys;
+		heapCounts = new int[capacity];
+		heapIndices = new Object2IntOpenHashMap<>(capacity);
+		heapIndices.defaultReturnValue(-1);
+	}
+
+	/**
+	 * Counts one occurrence of an element.
+	 *
+	 * @param key
+	 *            The element to count.
+	 * @return The new estimated count of the element.
+	 */
+	public int add(final K key) {
+		return add(key, 1);
+	}
+
+	/**
+	 * Adds to the count of an element.
+	 *
+	 * @param key
+	 *            The element to count.
+	 * @param incr
+	 *            The positive amount to add to its count.
+	 * @return The new estimated count of the element.
+	 */
+	public int add(final K key, final int incr) {
+		if (incr <= 0) {
+			throw new IllegalArgumentException("Increment must be positive");
+		}
+		final int hash = HashCommon.mix(key.hashCode());
+		final int result = saturatedAdd(estimate(hash), incr);
+		// Conservative update: Raise only the counters below the new estimate
+		for (int row = 0; row < depth; ++row) {
+			final int counterIdx = counterIndex(hash, row);
+			if (counters[counterIdx] < result) {
+				counters[counterIdx] = result;
+			}
+		}
+		totalCount += incr;
+		offer(key, result);
+		return result;
+	}
+
+	/**
+	 * @return The maximum number of heavy hitters kept.
+	 */
+	public int capacity() {
+		return capacity;
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return heapIndices.containsKey(key);
+	}
+
+	/**
+	 * Estimates the count of any element, whether it is a heavy hitter or
+	 * not.
+	 *
+	 * @param key
+	 *            The element to get the estimated count of.
+	 * @return The estimated count, which is never lower than the true count.
+	 */
+	public int estimate(final Object key) {
+		return estimate(HashCommon.mix(key.hashCode()));
+	}
+
+	@Override
+	public int getInt(final Object key) {
+		final int heapIdx = heapIndices.getInt(key);
+		return heapIdx < 0 ? defRetValue : heapCounts[heapIdx];
+	}
+
+	/**
+	 * @return A new {@link List} of the heavy hitters in descending order of
+	 *         their estimated counts.
+	 */
+	public List<K> heavyHitters() {
+		final Integer[] heapIdxs = new Integer[heapSize];
+		for (int i = 0; i < heapSize; ++i) {
+			heapIdxs[i] = i;
+		}
+		Arrays.sort(heapIdxs, (idx1, idx2) -> Integer.compare(heapCounts[idx2], heapCounts[idx1]));
+		final List<K> result = new ArrayList<>(heapSize);
+		for (final Integer heapIdx : heapIdxs) {
+			result.add(heapKeys[heapIdx]);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds the counts of another sketch to this one, e.g.&nbsp;of the same
+	 * kind of elements counted in another part of a stream. The heavy hitters
+	 * of both are then re-estimated using the merged counts.
+	 *
+	 * @param other
+	 *            The {@code HeavyHitterObject2IntMap} to merge, which must have
+	 *            the same dimensions and capacity.
+	 */
+	public void merge(final HeavyHitterObject2IntMap<? extends K> other) {
+		if (other.widthMask != widthMask || other.depth != depth || other.capacity != capacity) {
+			throw new IllegalArgumentException("Only sketches with the same dimensions and capacity can be merged.");
+		}
+		for (int i = 0; i < counters.length; ++i) {
+			counters[i] = saturatedAdd(counters[i], other.counters[i]);
+		}
+		totalCount += other.totalCount;
+
+		final List<K> candidates = new ArrayList<>(heapSize + other.heapSize);
+		candidates.addAll(Arrays.asList(heapKeys).subList(0, heapSize));
+		for (int i = 0; i < other.heapSize; ++i) {
+			if (!heapIndices.containsKey(other.heapKeys[i])) {
+				candidates.add(other.heapKeys[i]);
+			}
+		}
+		Arrays.fill(heapKeys, 0, heapSize, null);
+		heapIndices.clear();
+		heapSize = 0;
+		for (final K candidate : candidates) {
+			offer(candidate, estimate(candidate));
+		}
+	}
+
+	@Override
+	public ObjectSet<Object2IntMap.Entry<K>> object2IntEntrySet() {
+		return new AbstractObjectSet<Object2IntMap.Entry<K>>() {
+
+			@Override
+			public ObjectIterator<Object2IntMap.Entry<K>> iterator() {
+				return new AbstractObjectIterator<Object2IntMap.Entry<K>>() {
+
+					private int nextHeapIdx = 0;
+
+					@Override
+					public boolean hasNext() {
+						return nextHeapIdx < heapSize;
+					}
+
+					@Override
+					public Object2IntMap.Entry<K> next() {
+						if (!hasNext()) {
+							throw new NoSuchElementException();
+						}
+						final int heapIdx = nextHeapIdx++;
+						return new BasicEntry<>(heapKeys[heapIdx], heapCounts[heapIdx]);
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return heapSize;
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return heapSize;
+	}
+
+	/**
+	 * @return The total of all counts added, including those of elements
+	 *         which are not heavy hitters.
+	 */
+	public long totalCount() {
+		return totalCount;
+	}
+
+	private int counterIndex(final int hash, final int row) {
+		return row * (widthMask + 1) + (HashCommon.murmurHash3(hash + row * ROW_SEED_MULTIPLIER) & widthMask);
+	}
+
+	private int estimate(final int hash) {
+		int result = Integer.MAX_VALUE;
+		for (int row = 0; row < depth; ++row) {
+			result = Math.min(result, counters[counterIndex(hash, row)]);
+		}
+		return result;
+	}
+
+	/**
+	 * Updates the estimated count of an element in the heap, adding it if it
+	 * is not yet a heavy hitter and either the heap is not full or its count
+	 * is greater than that of the least heavy hitter.
+	 *
+	 * @param key
+	 *            The element to update.
+	 * @param count
+	 *            The new estimated count of the element, which is never lower
+	 *            than its previous estimate.
+	 */
+	private void offer(final K key, final int count) {
+		final int heapIdx = heapIndices.getInt(key);
+		if (heapIdx >= 0) {
+			heapCounts[heapIdx] = count;
+			siftDown(heapIdx);
+		} else if (heapSize < capacity) {
+			heapKeys[heapSize] = key;
+			heapCounts[heapSize] = count;
+			heapIndices.put(key, heapSize);
+			siftUp(heapSize++);
+		} else if (count > heapCounts[0]) {
+			heapIndices.removeInt(heapKeys[0]);
+			heapKeys[0] = key;
+			heapCounts[0] = count;
+			heapIndices.put(key, 0);
+			siftDown(0);
+		}
+	}
+
+	private void siftDown(final int heapIdx) {
+		int pos = heapIdx;
+		final K key = heapKeys[pos];
+		final int count = heapCounts[pos];
+		int child;
+		while ((child = 2 * pos + 1) < heapSize) {
+			if (child + 1 < heapSize && heapCounts[child + 1] < heapCounts[child]) {
+				++child;
+			}
+			if (count <= heapCounts[child]) {
+				break;
+			}
+			setHeapEntry(pos, heapKeys[child], heapCounts[child]);
+			pos = child;
+		}
+		setHeapEntry(pos, key, count);
+	}
+
+	private void siftUp(final int heapIdx) {
+		int pos = heapIdx;
+		final K key = heapKeys[pos];
+		final int count = heapCounts[pos];
+		while (pos > 0) {
+			final int parent = (pos - 1) / 2;
+			if (heapCounts[parent] <= count) {
+				break;
+			}
+			setHeapEntry(pos, heapKeys[parent], heapCounts[parent]);
+			pos = parent;
+		}
+		setHeapEntry(pos, key, count);
+	}
+
+	private void setHeapEntry(final int heapIdx, final K key, final int count) {
+		heapKeys[heapIdx] = key;
+		heapCounts[heapIdx] = count;
+		heapIndices.put(key, heapIdx);
+	}
+
+}
@@ -0,0 +1,590 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * A combined {@link List} and {@link Set} implementation which stores its
+ * elements in a single dense array together with an open-addressed hash table
+ * of the {@code int} indices of the elements in the array. It is therefore a
+ * single-structure alternative to {@link ReverseLookupOrderedSet}, which
+ * references each element from both a {@code List} and a separate reverse
+ * lookup map: Adding an element, getting the element at an index and getting
+ * the index of an element all take constant time, without any boxing.
+ * <p>
+ * Inserting or removing an element at an arbitrary index shifts the indices
+ * of the subsequent elements in a single linear pass over the hash table
+ * rather than by re-hashing the elements.
+ * </p>
+ *
+ * @param <E>
+ *            The type of the elements of the set.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class IndexedObjectSet<E> extends AbstractList<E> implements RandomAccess, Serializable, Set<E> {
+
+	/**
+	 * The value of a hash table slot which does not refer to any element.
+	 */
+	private static final int EMPTY = -1;
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = -2883616521939787402L;
+
+	private static int hash(final Object element) {
+		return element == null ? 0 : HashCommon.mix(element.hashCode());
+	}
+
+	/**
+	 * The elements of the set in order, of which the first {@link #size} are
+	 * valid.
+	 */
+	private transient Object[] elements;
+
+	/**
+	 * The load factor of {@link #table the hash table}.
+	 */
+	private final float loadFactor;
+
+	/**
+	 * The mask for wrapping indices of {@link #table the hash table}.
+	 */
+	private transient int mask;
+
+	/**
+	 * The number of elements above which {@link #table the hash table} is
+	 * grown.
+	 */
+	private transient int maxFill;
+
+	private int size;
+
+	/**
+	 * The open-addressed hash table of the indices of the elements in
+	 * {@link #elements}, using linear probing; Empty slots are {@link #EMPTY}.
+	 */
+	private transient int[] table;
+
+	/**
+	 * Creates a new, empty set.
+	 */
+	public IndexedObjectSet() {
+		this(Hash.DEFAULT_INITIAL_SIZE);
+	}
+
+	/**
+	 * Creates a new set containing the distinct elements of a given
+	 * {@link Collection} in the order they are iterated over.
+	 *
+	 * @param c
+	 *            The {@code Collection} to add the elements of.
+	 */
+	public IndexedObjectSet(final Collection<? extends E> c) {
+		this(c.size());
+		addAll(c);
+	}
+
+	/**
+	 * Creates a new, empty set.
+	 *
+	 * @param expected
+	 *            The expected number of elements in the set.
+	 */
+	public IndexedObjectSet(final int expected) {
+		this(expected, Hash.DEFAULT_LOAD_FACTOR);
+	}
+
+	/**
+	 * Creates a new, empty set.
+	 *
+	 * @param expected
+	 *            The expected number of elements in the set.
+	 * @param loadFactor
+	 *            The load factor of the hash table of element indices.
+	 */
+	public IndexedObjectSet(final int expected, final float loadFactor) {
+		if (loadFactor <= 0 || loadFactor > 1) {
+			throw new IllegalArgumentException("Load factor must be greater than 0 and smaller than or equal to 1");
+		}
+		if (expected < 0) {
+			throw new IllegalArgumentException("The expected number of elements must be nonnegative");
+		}
+		this.loadFactor = loadFactor;
+		elements = new Object[expected];
+		allocateTable(HashCommon.arraySize(expected, loadFactor));
+	}
+
+	@Override
+	public boolean add(final E element) {
+		final boolean result;
+
+		if (contains(element)) {
+			result = false;
+		} else {
+			ensureElementCapacity(size + 1);
+			elements[size] = element;
+			insertIndex(size);
+			++size;
+			++modCount;
+			ensureTableCapacity();
+			result = true;
+		}
+
+		return result;
+	}
+
+	/**
+	 * Inserts an element at a given index.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the set already contains the element.
+	 */
+	@Override
+	public void add(final int index, final E element) {
+		checkPositionIndex(index);
+		if (contains(element)) {
+			throw new IllegalArgumentException("Set already contains the given element.");
+		}
+		ensureElementCapacity(size + 1);
+		System.arraycopy(elements, index, elements, index + 1, size - index);
+		shiftIndices(index, 1);
+		elements[index] = element;
+		insertIndex(index);
+		++size;
+		++modCount;
+		ensureTableCapacity();
+	}
+
+	@Override
+	public boolean addAll(final Collection<? extends E> c) {
+		ensureElementCapacity(size + c.size());
+		boolean result = false;
+		for (final E element : c) {
+			if (add(element)) {
+				result = true;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Inserts the elements of a given {@link Collection} which are not yet in
+	 * the set at a given index, shifting the indices of the subsequent
+	 * elements only once.
+	 */
+	@Override
+	public boolean addAll(final int index, final Collection<? extends E> c) {
+		checkPositionIndex(index);
+		// Filter out both the elements already in the set and repeated
+		// elements in the collection
+		final IndexedObjectSet<E> added = new IndexedObjectSet<>(c.size());
+		for (final E element : c) {
+			if (!contains(element)) {
+				added.add(element);
+			}
+		}
+
+		final int addedCount = added.size;
+		final boolean result = addedCount > 0;
+		if (result) {
+			ensureElementCapacity(size + addedCount);
+			// Grow the table before inserting so that it never fills up
+			if (size + addedCount >= maxFill) {
+				rehash(HashCommon.arraySize(size + addedCount + 1, loadFactor));
+			}
+			System.arraycopy(elements, index, elements, index + addedCount, size - index);
+			shiftIndices(index, addedCount);
+			System.arraycopy(added.elements, 0, elements, index, addedCount);
+			for (int i = index; i < index + addedCount; ++i) {
+				insertIndex(i);
+			}
+			size += addedCount;
+			++modCount;
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(elements, 0, size, null);
+			Arrays.fill(table, EMPTY);
+			size = 0;
+			++modCount;
+		}
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof IndexedObjectSet<?>) {
+			result = super.equals(obj);
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public E get(final int index) {
+		checkElementIndex(index);
+		return (E) elements[index];
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		int result = EMPTY;
+		for (int slot = hash(o) & mask; table[slot] != EMPTY; slot = slot + 1 & mask) {
+			if (Objects.equals(o, elements[table[slot]])) {
+				result = table[slot];
+				break;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public E remove(final int index) {
+		checkElementIndex(index);
+		@SuppressWarnings("unchecked")
+		final E result = (E) elements[index];
+		// Remove the index from the table before shifting the elements
+		// because the table is probed using the elements
+		removeSlot(findSlot(index));
+		shiftIndices(index + 1, -1);
+		System.arraycopy(elements, index + 1, elements, index, size - index - 1);
+		elements[--size] = null;
+		++modCount;
+		return result;
+	}
+
+	@Override
+	public boolean remove(final Object o) {
+		final int index = indexOf(o);
+		final boolean result;
+		if (index < 0) {
+			result = false;
+		} else {
+			remove(index);
+			result = true;
+		}
+		return result;
+	}
+
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		return batchRemove(c, false);
+	}
+
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		return batchRemove(c, true);
+	}
+
+	/**
+	 * Replaces the element at a given index.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If the set already contains the new element at another
+	 *             index.
+	 */
+	@Override
+	public E set(final int index, final E element) {
+		checkElementIndex(index);
+		@SuppressWarnings("unchecked")
+		final E result = (E) elements[index];
+		if (!Objects.equals(result, element)) {
+			if (contains(element)) {
+				throw new IllegalArgumentException("Set already contains the given element.");
+			}
+			removeSlot(findSlot(index));
+			elements[index] = element;
+			insertIndex(index);
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Spliterator<E> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT);
+	}
+
+	@Override
+	public Object[] toArray() {
+		return Arrays.copyOf(elements, size);
+	}
+
+	/**
+	 * Shrinks the backing arrays to the smallest size which holds all the
+	 * current elements.
+	 */
+	public void trim() {
+		elements = Arrays.copyOf(elements, size);
+		// Size the table for one more element than there is so that it always
+		// has an empty slot at which probing for an absent element stops,
+		// even with a load factor of 1
+		final int tableSize = HashCommon.arraySize(size + 1, loadFactor);
+		if (tableSize < table.length) {
+			rehash(tableSize);
+		}
+	}
+
+	private void allocateTable(final int tableSize) {
+		table = new int[tableSize];
+		Arrays.fill(table, EMPTY);
+		mask = tableSize - 1;
+		maxFill = HashCommon.maxFill(tableSize, loadFactor);
+	}
+
+	/**
+	 * Removes the elements which either are or are not in a given
+	 * {@link Collection}, compacting the elements and then updating their
+	 * indices in a single pass over the hash table.
+	 *
+	 * @param c
+	 *            The {@code Collection} to check elements against.
+	 * @param complement
+	 *            If {@code true}, the elements not in {@code c} are removed;
+	 *            Otherwise, the elements in {@code c} are removed.
+	 * @return {@code true} iff at least one element was removed.
+	 */
+	private boolean batchRemove(final Collection<?> c, final boolean complement) {
+		final int[] newIndices = new int[size];
+		int retainedCount = 0;
+		for (int index = 0; index < size; ++index) {
+			if (c.contains(elements[index]) == complement) {
+				newIndices[index] = retainedCount++;
+			} else {
+				newIndices[index] = EMPTY;
+				// Remove the index from the table while the element is still
+				// at its old index
+				removeSlot(findSlot(index));
+			}
+		}
+
+		final boolean result = retainedCount < size;
+		if (result) {
+			for (int slot = 0; slot < table.length; ++slot) {
+				final int oldIndex = table[slot];
+				if (oldIndex != EMPTY) {
+					table[slot] = newIndices[oldIndex];
+				}
+			}
+			for (int index = 0; index < size; ++index) {
+				final int newIndex = newIndices[index];
+				if (newIndex != EMPTY) {
+					elements[newIndex] = elements[index];
+				}
+			}
+			Arrays.fill(elements, retainedCount, size, null);
+			size = retainedCount;
+			++modCount;
+		}
+		return result;
+	}
+
+	private void checkElementIndex(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		}
+	}
+
+	private void checkPositionIndex(final int index) {
+		if (index < 0 || index > size) {
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		}
+	}
+
+	private void ensureElementCapacity(final int capacity) {
+		if (capacity > elements.length) {
+			final int newLength = (int) Math.min(Math.max(capacity, elements.length + (long) (elements.length >> 1)),
+					Integer.MAX_VALUE - 8);
+			elements = Arrays.copyOf(elements, newLength);
+		}
+	}
+
+	private void ensureTableCapacity() {
+		if (size >= maxFill) {
+			rehash(HashCommon.arraySize(size + 1, loadFactor));
+		}
+	}
+
+	/**
+	 * Finds the hash table slot of the element at a given index.
+	 *
+	 * @param index
+	 *            The index of the element to find.
+	 * @return The slot of the hash table containing {@code index}.
+	 */
+	private int findSlot(final int index) {
+		int slot = hash(elements[index]) & mask;
+		while (table[slot] != index) {
+			assert table[slot] != EMPTY;
+			slot = slot + 1 & mask;
+		}
+		return slot;
+	}
+
+	/**
+	 * Puts the index of an element into the hash table, assuming that the
+	 * element is not already in it.
+	 *
+	 * @param index
+	 *            The index of the element in {@link #elements}.
+	 */
+	private void insertIndex(final int index) {
+		int slot = hash(elements[index]) & mask;
+		while (table[slot] != EMPTY) {
+			slot = slot + 1 & mask;
+		}
+		table[slot] = index;
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		elements = new Object[size];
+		for (int index = 0; index < size; ++index) {
+			elements[index] = in.readObject();
+		}
+		// Element hash codes are not necessarily the same in another JVM, so
+		// the table must be rebuilt
+		// As in trim(), leave at least one slot empty
+		allocateTable(HashCommon.arraySize(size + 1, loadFactor));
+		for (int index = 0; index < size; ++index) {
+			insertIndex(index);
+		}
+	}
+
+	private void rehash(final int tableSize) {
+		allocateTable(tableSize);
+		for (int index = 0; index < size; ++index) {
+			insertIndex(index);
+		}
+	}
+
+	/**
+	 * Empties a given hash table slot, shifting subsequent entries back so that
+	 * linear probing still finds them.
+	 *
+	 * @param slot
+	 *            The slot to empty.
+	 */
+	private void removeSlot(final int slot) {
+		int current = slot;
+		for (;;) {
+			final int last = current;
+			current = last + 1 & mask;
+			int index;
+			for (;;) {
+				index = table[current];
+				if (index == EMPTY) {
+					table[last] = EMPTY;
+					return;
+				}
+				final int home = hash(elements[index]) & mask;
+				// Move the entry back if its home slot is not cyclically
+				// between the emptied slot and its current slot
+				if (last <= current ? last >= home || home > current : last >= home && home > current) {
+					break;
+				}
+				current = current + 1 & mask;
+			}
+			table[last] = index;
+		}
+	}
+
+	/**
+	 * Adds a given amount to all indices in the hash table which are at least a
+	 * given index.
+	 *
+	 * @param fromIndex
+	 *            The inclusive minimum index to shift.
+	 * @param shift
+	 *            The amount to shift the indices by.
+	 */
+	private void shiftIndices(final int fromIndex, final int shift) {
+		if (fromIndex < size) {
+			for (int slot = 0; slot < table.length; ++slot) {
+				final int index = table[slot];
+				if (index >= fromIndex) {
+					table[slot] = index + shift;
+				}
+			}
+		}
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		for (int index = 0; index < size; ++index) {
+			out.writeObject(elements[index]);
+		}
+	}
+
+}
@@ -0,0 +1,514 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * A combined {@link List} and {@link Set} implementation for {@link String}
+ * vocabularies which stores its elements UTF-8-encoded in a single byte arena
+ * rather than as individual {@code String} objects, together with an
+ * open-addressed hash table of their {@code int} indices.
+ * <p>
+ * Besides {@link #indexOf(Object)}, the index of an element can be looked up
+ * from any {@link CharSequence}, a range of a {@code char[]} or a range of
+ * UTF-8 bytes in a {@code byte[]} or {@link ByteBuffer}, e.g.&nbsp;a token
+ * buffer of a tokenizer, without allocating any objects: The hash of an
+ * element is the hash of its UTF-8 bytes, so characters are hashed and
+ * compared with the arena by encoding them on the fly. Only
+ * {@link #get(int)} creates a {@code String}.
+ * </p>
+ * <p>
+ * Elements can only be appended. Since unpaired surrogate characters cannot
+ * be encoded in UTF-8, strings containing them cannot be added.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class IndexedStringSet extends AbstractList<String> implements RandomAccess, Serializable, Set<String> {
+
+	/**
+	 * A view of the arena and hash table of the set for looking up elements
+	 * using {@link Utf8Encoding}.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class ArenaTable implements Utf8Encoding.Table {
+
+		@Override
+		public byte byteAt(final long position) {
+			return arena[(int) position];
+		}
+
+		@Override
+		public long end(final int index) {
+			return offsets[index + 1];
+		}
+
+		@Override
+		public int hash(final int index) {
+			return hashes[index];
+		}
+
+		@Override
+		public int indexAt(final int slot) {
+			return table[slot];
+		}
+
+		@Override
+		public int mask() {
+			return mask;
+		}
+
+		@Override
+		public long start(final int index) {
+			return offsets[index];
+		}
+	}
+
+	/**
+	 * The value of a hash table slot which does not refer to any element.
+	 */
+	private static final int EMPTY = Utf8Encoding.EMPTY;
+
+	/**
+	 * The number of bytes reserved in {@link #arena} for each expected
+	 * element when creating a new set.
+	 */
+	private static final int EXPECTED_ELEMENT_UTF8_LENGTH = 8;
+
+	/**
+	 * The maximum number of bytes initially reserved in {@link #arena}, above
+	 * which it is grown only as elements are added.
+	 */
+	private static final int MAX_INITIAL_ARENA_LENGTH = 1 << 24;
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 4360862311227101453L;
+
+	/**
+	 * The UTF-8 bytes of all elements, of which the first
+	 * {@code offsets[size]} are valid.
+	 */
+	private transient byte[] arena;
+
+	/**
+	 * The hash of each element.
+	 */
+	private transient int[] hashes;
+
+	/**
+	 * The {@link ArenaTable} used for looking up elements.
+	 */
+	private transient Utf8Encoding.Table lookupTable;
+
+	/**
+	 * The mask for wrapping indices of {@link #table the hash table}.
+	 */
+	private transient int mask;
+
+	/**
+	 * The number of elements above which {@link #table the hash table} is
+	 * grown.
+	 */
+	private transient int maxFill;
+
+	/**
+	 * The offset of each element in {@link #arena}, followed by the end offset
+	 * of the last element.
+	 */
+	private transient int[] offsets;
+
+	private transient int size;
+
+	/**
+	 * The open-addressed hash table of the indices of the elements, using
+	 * linear probing; Empty slots are {@link #EMPTY}.
+	 */
+	private transient int[] table;
+
+	/**
+	 * Creates a new, empty set.
+	 */
+	public IndexedStringSet() {
+		this(Hash.DEFAULT_INITIAL_SIZE);
+	}
+
+	/**
+	 * Creates a new set containing the distinct elements of a given
+	 * {@link Collection} in the order they are iterated over.
+	 *
+	 * @param c
+	 *            The {@code Collection} to add the elements of.
+	 */
+	public IndexedStringSet(final Collection<String> c) {
+		this(c.size());
+		addAll(c);
+	}
+
+	/**
+	 * Creates a new, empty set.
+	 *
+	 * @param expected
+	 *            The expected number of elements in the set.
+	 */
+	public IndexedStringSet(final int expected) {
+		if (expected < 0) {
+			throw new IllegalArgumentException("The expected number of elements must be nonnegative");
+		}
+		allocate(expected, (int) Math.min(expected * (long) EXPECTED_ELEMENT_UTF8_LENGTH, MAX_INITIAL_ARENA_LENGTH));
+	}
+
+	/**
+	 * @throws IllegalArgumentException
+	 *             If the string contains an unpaired surrogate character.
+	 */
+	@Override
+	public boolean add(final String element) {
+		final int length = element.length();
+		final int hash = Utf8Encoding.hash(element, 0, length);
+		final boolean result;
+		if (Utf8Encoding.find(lookupTable, hash, element, 0, length) >= 0) {
+			result = false;
+		} else {
+			final int start = offsets[size];
+			ensureArenaCapacity(start + length * 3L);
+			final int end = Utf8Encoding.encode(element, arena, start);
+			ensureElementCapacity(size + 1);
+			hashes[size] = hash;
+			offsets[size + 1] = end;
+			insertIndex(size);
+			++size;
+			++modCount;
+			if (size >= maxFill) {
+				rehash(HashCommon.arraySize(size + 1, Hash.DEFAULT_LOAD_FACTOR));
+			}
+			result = true;
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		if (size > 0) {
+			Arrays.fill(table, EMPTY);
+			size = 0;
+			++modCount;
+		}
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof IndexedStringSet) {
+			result = isEquivalentTo((IndexedStringSet) obj);
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	@Override
+	public String get(final int index) {
+		checkElementIndex(index);
+		final int start = offsets[index];
+		return new String(arena, start, offsets[index + 1] - start, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * Gets the index of the element equal to a range of a {@code char[]}
+	 * without allocating any objects.
+	 *
+	 * @param chars
+	 *            The array containing the characters to look up.
+	 * @param offset
+	 *            The index of the first character.
+	 * @param length
+	 *            The number of characters.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOf(final char[] chars, final int offset, final int length) {
+		return Utf8Encoding.indexOf(lookupTable, chars, offset, offset + length);
+	}
+
+	/**
+	 * Gets the index of the element equal to a {@link CharSequence} without
+	 * allocating any objects.
+	 *
+	 * @param s
+	 *            The characters to look up.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOf(final CharSequence s) {
+		return indexOf(s, 0, s.length());
+	}
+
+	/**
+	 * Gets the index of the element equal to a range of a
+	 * {@link CharSequence} without allocating any objects.
+	 *
+	 * @param s
+	 *            The sequence containing the characters to look up.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOf(final CharSequence s, final int start, final int end) {
+		return Utf8Encoding.indexOf(lookupTable, s, start, end);
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		return o instanceof CharSequence ? indexOf((CharSequence) o) : EMPTY;
+	}
+
+	/**
+	 * Gets the index of the element encoded by a range of UTF-8 bytes in a
+	 * {@code byte[]} without allocating any objects.
+	 *
+	 * @param bytes
+	 *            The array containing the bytes to look up.
+	 * @param offset
+	 *            The index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOfUtf8(final byte[] bytes, final int offset, final int length) {
+		return Utf8Encoding.indexOfUtf8(lookupTable, bytes, offset, length);
+	}
+
+	/**
+	 * Gets the index of the element encoded by a range of UTF-8 bytes in a
+	 * {@link ByteBuffer} without allocating any objects; The position of the
+	 * buffer is not changed.
+	 *
+	 * @param buffer
+	 *            The buffer containing the bytes to look up.
+	 * @param index
+	 *            The absolute index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOfUtf8(final ByteBuffer buffer, final int index, final int length) {
+		return Utf8Encoding.indexOfUtf8(lookupTable, buffer, index, length);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Spliterator<String> spliterator() {
+		return Spliterators.spliterator(this, Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+	}
+
+	/**
+	 * Shrinks the backing arrays to the smallest size which holds all the
+	 * current elements.
+	 */
+	public void trim() {
+		arena = Arrays.copyOf(arena, offsets[size]);
+		offsets = Arrays.copyOf(offsets, size + 1);
+		hashes = Arrays.copyOf(hashes, size);
+		final int tableSize = HashCommon.arraySize(size, Hash.DEFAULT_LOAD_FACTOR);
+		if (tableSize < table.length) {
+			rehash(tableSize);
+		}
+	}
+
+	/**
+	 * @return The number of UTF-8 bytes of all elements.
+	 */
+	public int utf8Length() {
+		return offsets[size];
+	}
+
+	private void allocate(final int expected, final int arenaLength) {
+		lookupTable = new ArenaTable();
+		arena = new byte[arenaLength];
+		offsets = new int[expected + 1];
+		hashes = new int[expected];
+		allocateTable(HashCommon.arraySize(expected, Hash.DEFAULT_LOAD_FACTOR));
+	}
+
+	private void allocateTable(final int tableSize) {
+		table = new int[tableSize];
+		Arrays.fill(table, EMPTY);
+		mask = tableSize - 1;
+		maxFill = HashCommon.maxFill(tableSize, Hash.DEFAULT_LOAD_FACTOR);
+	}
+
+	private void checkElementIndex(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		}
+	}
+
+	private void ensureArenaCapacity(final long capacity) {
+		if (capacity > arena.length) {
+			if (capacity > Integer.MAX_VALUE - 8) {
+				throw new IllegalStateException("Arena size would exceed the maximum array size.");
+			}
+			final int newLength = (int) Math.min(Math.max(capacity, arena.length + (long) (arena.length >> 1)),
+					Integer.MAX_VALUE - 8);
+			arena = Arrays.copyOf(arena, newLength);
+		}
+	}
+
+	private void ensureElementCapacity(final int capacity) {
+		if (capacity > hashes.length) {
+			final int newLength = (int) Math.min(Math.max(capacity, hashes.length + (long) (hashes.length >> 1)),
+					Integer.MAX_VALUE - 8);
+			hashes = Arrays.copyOf(hashes, newLength);
+			offsets = Arrays.copyOf(offsets, newLength + 1);
+		}
+	}
+
+	/**
+	 * Puts the index of an element into the hash table, assuming that the
+	 * element is not already in it.
+	 *
+	 * @param index
+	 *            The index of the element.
+	 */
+	private void insertIndex(final int index) {
+		int slot = HashCommon.mix(hashes[index]) & mask;
+		while (table[slot] != EMPTY) {
+			slot = slot + 1 & mask;
+		}
+		table[slot] = index;
+	}
+
+	private boolean isEquivalentTo(final IndexedStringSet other) {
+		assert other != null;
+
+		boolean result = size == other.size;
+		// Equal elements in equal order have equal offsets and bytes
+		for (int index = 1; result && index <= size; ++index) {
+			result = offsets[index] == other.offsets[index];
+		}
+		for (int i = 0; result && i < offsets[size]; ++i) {
+			result = arena[i] == other.arena[i];
+		}
+		return result;
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int size = in.readInt();
+		if (size < 0) {
+			throw new InvalidObjectException("Negative size.");
+		}
+		final int[] readOffsets = new int[size + 1];
+		for (int index = 1; index <= size; ++index) {
+			readOffsets[index] = in.readInt();
+			if (readOffsets[index] < readOffsets[index - 1]) {
+				throw new InvalidObjectException(String.format("Offset %d is less than its predecessor.", index));
+			}
+		}
+		lookupTable = new ArenaTable();
+		// The arena is allocated once with exactly the length of the elements
+		arena = new byte[readOffsets[size]];
+		offsets = readOffsets;
+		hashes = new int[size];
+		allocateTable(HashCommon.arraySize(size, Hash.DEFAULT_LOAD_FACTOR));
+		in.readFully(arena);
+		// The hash of each element depends only on its bytes and so can be
+		// recomputed without decoding the elements
+		for (int index = 0; index < size; ++index) {
+			hashes[index] = Utf8Encoding.hash(arena, offsets[index], offsets[index + 1] - offsets[index]);
+			insertIndex(index);
+		}
+		this.size = size;
+	}
+
+	private void rehash(final int tableSize) {
+		allocateTable(tableSize);
+		for (int index = 0; index < size; ++index) {
+			insertIndex(index);
+		}
+	}
+
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(size);
+		for (int index = 1; index <= size; ++index) {
+			out.writeInt(offsets[index]);
+		}
+		out.write(arena, 0, offsets[size]);
+	}
+
+}
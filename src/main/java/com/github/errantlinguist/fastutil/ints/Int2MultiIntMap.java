@@ -0,0 +1,335 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.ints.AbstractInt2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntCollections;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.objects.ObjectCollection;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
+
+/**
+ * An {@link Int2ObjectMap} which has {@link IntCollection collections} of
+ * values for each {@code int} key, e.g.&nbsp;for the positions at which each
+ * context ID co-occurs with a token ID. This is the counterpart of
+ * {@link MultiValueObject2IntMap} for primitive keys: The value collections
+ * are stored in an {@link Int2ObjectOpenHashMap}, so keys are never boxed.
+ * <p>
+ * The number of keys each value is mapped to is counted as values are put and
+ * removed through this map, so checking if any key maps to a value and
+ * getting {@link #valueFrequency(int) the frequency of a value} take constant
+ * time. Value collections modified directly rather than through this map are
+ * not counted.
+ * </p>
+ *
+ * @param <C>
+ *            The type of {@code IntCollection} object used to contain the
+ *            values for each key.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class Int2MultiIntMap<C extends IntCollection> extends AbstractInt2ObjectMap<C> {
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = -7018339163598437625L;
+
+	/**
+	 * The value collection of each key.
+	 */
+	private final Int2ObjectOpenHashMap<C> decorated;
+
+	/**
+	 * The {@link Supplier} used for creating new value collections for the map
+	 * keys.
+	 */
+	private final Supplier<? extends C> valueCollectionFactory;
+
+	/**
+	 * The number of occurrences of each value in the value collections,
+	 * containing only values which occur at least once.
+	 */
+	private transient Int2IntOpenHashMap valueCounts;
+
+	/**
+	 * Creates a new, empty map.
+	 *
+	 * @param expected
+	 *            The expected number of keys.
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys, which must itself be serializable for the
+	 *            map to be serializable.
+	 */
+	public Int2MultiIntMap(final int expected, final Supplier<? extends C> valueCollectionFactory) {
+		decorated = new Int2ObjectOpenHashMap<>(expected);
+		this.valueCollectionFactory = valueCollectionFactory;
+		valueCounts = new Int2IntOpenHashMap();
+	}
+
+	/**
+	 * Creates a new, empty map.
+	 *
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys, which must itself be serializable for the
+	 *            map to be serializable.
+	 */
+	public Int2MultiIntMap(final Supplier<? extends C> valueCollectionFactory) {
+		this(Hash.DEFAULT_INITIAL_SIZE, valueCollectionFactory);
+	}
+
+	@Override
+	public void clear() {
+		decorated.clear();
+		valueCounts.clear();
+	}
+
+	@Override
+	public boolean containsKey(final int key) {
+		return decorated.containsKey(key);
+	}
+
+	/**
+	 * Checks if a given value is mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to check the values of.
+	 * @param value
+	 *            The value to check.
+	 * @return {@code true} iff the given key maps to the given value.
+	 */
+	public boolean containsValue(final int key, final int value) {
+		final C keyValues = decorated.get(key);
+		return keyValues != null && keyValues.contains(value);
+	}
+
+	@Override
+	public boolean containsValue(final Object value) {
+		return value instanceof Integer && valueCounts.containsKey(((Integer) value).intValue());
+	}
+
+	@Override
+	public C get(final int key) {
+		return decorated.get(key);
+	}
+
+	/**
+	 * @return An unmodifiable view of a {@link IntCollection} of all elements
+	 *         for all keys.
+	 */
+	public IntCollection getAllValues() {
+		return IntCollections.unmodifiable(valueCounts.keySet());
+	}
+
+	/**
+	 * Returns all value elements mapped to a key.
+	 *
+	 * @param key
+	 *            The key to get all the elements for.
+	 * @return A {@link IntCollection} of elements; if there is no mapping for
+	 *         the given key, then an empty {@code IntCollection} is returned.
+	 */
+	public C getValues(final int key) {
+		C result = decorated.get(key);
+		if (result == null) {
+			result = valueCollectionFactory.get();
+			decorated.put(key, result);
+		}
+		return result;
+	}
+
+	@Override
+	public ObjectSet<Int2ObjectMap.Entry<C>> int2ObjectEntrySet() {
+		return decorated.int2ObjectEntrySet();
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return decorated.isEmpty();
+	}
+
+	@Override
+	public IntSet keySet() {
+		return decorated.keySet();
+	}
+
+	@Override
+	public C put(final int key, final C value) {
+		final C result = decorated.put(key, value);
+
+		if (result != null) {
+			decrementCounts(result);
+		}
+		incrementCounts(value);
+
+		return result;
+	}
+
+	/**
+	 * Adds a value for a given key.
+	 *
+	 * @param key
+	 *            The key to add the new value to.
+	 * @param value
+	 *            The value to add.
+	 * @return {@code true} iff the value was successfully added.
+	 */
+	public boolean putValue(final int key, final int value) {
+		final boolean result = getValues(key).add(value);
+		if (result) {
+			valueCounts.addTo(value, 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Adds values for a given key.
+	 *
+	 * @param key
+	 *            The key to add the new values to.
+	 * @param values
+	 *            The values to add.
+	 * @return {@code true} if at least one value was successfully added.
+	 */
+	public boolean putValues(final int key, final IntCollection values) {
+		final C keyValues = getValues(key);
+		boolean result = false;
+		for (final IntIterator iter = values.iterator(); iter.hasNext();) {
+			final int value = iter.nextInt();
+			if (keyValues.add(value)) {
+				valueCounts.addTo(value, 1);
+				result = true;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public C remove(final int key) {
+		final C result = decorated.remove(key);
+
+		if (result != null) {
+			decrementCounts(result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Removes a given value mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to remove the given mapped value for.
+	 * @param value
+	 *            The value to remove from the {@link IntCollection} of values
+	 *            mapped to the given key.
+	 * @return {@code true} iff the value was successfully removed.
+	 */
+	public boolean removeValue(final int key, final int value) {
+		final C values = decorated.get(key);
+		final boolean result = values != null && values.rem(value);
+		if (result) {
+			decrementCount(value);
+		}
+		return result;
+	}
+
+	/**
+	 * Removes given values mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to remove the given mapped value for.
+	 * @param values
+	 *            The values to remove from the {@link IntCollection} of values
+	 *            mapped to the given key.
+	 * @return {@code true} if at least one value was successfully removed.
+	 */
+	public boolean removeValues(final int key, final IntCollection values) {
+		boolean result = false;
+		final C keyValues = decorated.get(key);
+		if (keyValues != null) {
+			for (final IntIterator iter = values.iterator(); iter.hasNext();) {
+				final int value = iter.nextInt();
+				if (keyValues.rem(value)) {
+					decrementCount(value);
+					result = true;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return decorated.size();
+	}
+
+	/**
+	 * Counts the keys a given value is mapped to.
+	 *
+	 * @param value
+	 *            The value to count.
+	 * @return The number of occurrences of the value in the value collections
+	 *         of all keys, which for sets of values is the number of keys
+	 *         mapped to it.
+	 */
+	public int valueFrequency(final int value) {
+		return valueCounts.get(value);
+	}
+
+	@Override
+	public ObjectCollection<C> values() {
+		return decorated.values();
+	}
+
+	private void decrementCount(final int value) {
+		final int oldCount = valueCounts.addTo(value, -1);
+		assert oldCount > 0;
+		if (oldCount == 1) {
+			valueCounts.remove(value);
+		}
+	}
+
+	private void decrementCounts(final IntCollection values) {
+		for (final IntIterator iter = values.iterator(); iter.hasNext();) {
+			decrementCount(iter.nextInt());
+		}
+	}
+
+	private void incrementCounts(final IntCollection values) {
+		for (final IntIterator iter = values.iterator(); iter.hasNext();) {
+			valueCounts.addTo(iter.nextInt(), 1);
+		}
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		valueCounts = MultiValueObject2IntMap.createValueCounts(decorated.values());
+	}
+
+}
@@ -22,12 +22,17 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 import com.github.errantlinguist.collections.ListIndices;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap.Entry;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntCollection;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
@@ -40,6 +45,171 @@ import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
  */
 public final class ListIntIndices {
 
+	/**
+	 * A task which maps each element of a range of an array to the ascending
+	 * list of its indices in the range.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private static final class ListIndexTask<E> extends RecursiveTask<Map<E, IntArrayList>> {
+
+		/**
+		 * The generated serial version UID.
+		 */
+		private static final long serialVersionUID = -2751130434963425734L;
+
+		private final Object[] elements;
+
+		private final int end;
+
+		private final int start;
+
+		private ListIndexTask(final Object[] elements, final int start, final int end) {
+			this.elements = elements;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected Map<E, IntArrayList> compute() {
+			final Map<E, IntArrayList> result;
+			if (end - start <= PARALLEL_CHUNK_SIZE) {
+				result = new HashMap<>();
+				for (int i = start; i < end; ++i) {
+					@SuppressWarnings("unchecked")
+					final E element = (E) elements[i];
+					IntArrayList indices = result.get(element);
+					if (indices == null) {
+						indices = new IntArrayList();
+						result.put(element, indices);
+					}
+					indices.add(i);
+				}
+			} else {
+				final int mid = (start + end) >>> 1;
+				final ListIndexTask<E> left = new ListIndexTask<>(elements, start, mid);
+				left.fork();
+				final Map<E, IntArrayList> right = new ListIndexTask<E>(elements, mid, end).compute();
+				final Map<E, IntArrayList> leftResult = left.join();
+				// Merge the smaller map into the larger one, concatenating the
+				// indices of each element so that they stay in ascending order
+				if (leftResult.size() >= right.size()) {
+					for (final Map.Entry<E, IntArrayList> rightEntry : right.entrySet()) {
+						final IntArrayList leftIndices = leftResult.get(rightEntry.getKey());
+						if (leftIndices == null) {
+							leftResult.put(rightEntry.getKey(), rightEntry.getValue());
+						} else {
+							leftIndices.addAll(rightEntry.getValue());
+						}
+					}
+					result = leftResult;
+				} else {
+					for (final Map.Entry<E, IntArrayList> leftEntry : leftResult.entrySet()) {
+						final IntArrayList rightIndices = right.get(leftEntry.getKey());
+						if (rightIndices == null) {
+							right.put(leftEntry.getKey(), leftEntry.getValue());
+						} else {
+							final IntArrayList leftIndices = leftEntry.getValue();
+							leftIndices.addAll(rightIndices);
+							right.put(leftEntry.getKey(), leftIndices);
+						}
+					}
+					result = right;
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * A task which maps each element of a range of an array to its index,
+	 * recording the least index of an element which also occurs at a lower
+	 * index.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private static final class OrderedSetIndexTask<E> extends RecursiveTask<Object2IntOpenHashMap<E>> {
+
+		/**
+		 * The generated serial version UID.
+		 */
+		private static final long serialVersionUID = 4410963349405412781L;
+
+		/**
+		 * The least index of a non-unique element found by any task, or
+		 * {@link Integer#MAX_VALUE} if none has been found.
+		 */
+		private final AtomicInteger duplicateIndex;
+
+		private final Object[] elements;
+
+		private final int end;
+
+		private final int start;
+
+		private OrderedSetIndexTask(final Object[] elements, final int start, final int end,
+				final AtomicInteger duplicateIndex) {
+			this.elements = elements;
+			this.start = start;
+			this.end = end;
+			this.duplicateIndex = duplicateIndex;
+		}
+
+		@Override
+		protected Object2IntOpenHashMap<E> compute() {
+			final Object2IntOpenHashMap<E> result;
+			if (end - start <= PARALLEL_CHUNK_SIZE) {
+				result = new Object2IntOpenHashMap<>(end - start);
+				result.defaultReturnValue(-1);
+				for (int i = start; i < end; ++i) {
+					@SuppressWarnings("unchecked")
+					final E element = (E) elements[i];
+					if (result.containsKey(element)) {
+						duplicateIndex.accumulateAndGet(i, Math::min);
+					} else {
+						result.put(element, i);
+					}
+				}
+			} else {
+				final int mid = (start + end) >>> 1;
+				final OrderedSetIndexTask<E> left = new OrderedSetIndexTask<>(elements, start, mid, duplicateIndex);
+				left.fork();
+				final Object2IntOpenHashMap<E> right = new OrderedSetIndexTask<E>(elements, mid, end, duplicateIndex)
+						.compute();
+				final Object2IntOpenHashMap<E> leftResult = left.join();
+				// Merge the smaller map into the larger one; An element in both
+				// maps occurs again at its index in the right-hand map
+				final Object2IntOpenHashMap<E> smaller;
+				if (leftResult.size() >= right.size()) {
+					result = leftResult;
+					smaller = right;
+				} else {
+					result = right;
+					smaller = leftResult;
+				}
+				for (final Object2IntMap.Entry<E> entry : smaller.object2IntEntrySet()) {
+					final int index = entry.getIntValue();
+					final int otherIndex = result.getInt(entry.getKey());
+					if (otherIndex < 0) {
+						result.put(entry.getKey(), index);
+					} else {
+						duplicateIndex.accumulateAndGet(Math.max(index, otherIndex), Math::min);
+						result.put(entry.getKey(), Math.min(index, otherIndex));
+					}
+				}
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * The number of elements below which a range of a list is indexed
+	 * sequentially rather than being split further by a parallel build.
+	 */
+	private static final int PARALLEL_CHUNK_SIZE = 1 << 16;
+
 	public static final <E> List<E> createListFromIndexMapping(
 			final Collection<? extends Entry<? extends E>> elementIndices) {
 		assert elementIndices != null;
@@ -86,6 +256,72 @@ public final class ListIntIndices {
 		return result;
 	}
 
+	/**
+	 * Creates a map of each element of a list to the indices it occurs at like
+	 * {@link #createListIndexMap(List, Supplier)}, but splits the list into
+	 * chunks which are indexed in parallel in the
+	 * {@link ForkJoinPool#commonPool() common fork-join pool}. The indices of
+	 * each element in consecutive chunks are concatenated in chunk order, and
+	 * the value collection of each element is then filled in parallel in
+	 * ascending order.
+	 *
+	 * @param list
+	 *            The {@link List} to index.
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys.
+	 * @return A new {@link MultiValueObject2IntMap} equal to that created by
+	 *         {@code createListIndexMap(list, valueCollectionFactory)}.
+	 */
+	public static final <E, C extends IntCollection> MultiValueObject2IntMap<E, C> parallelCreateListIndexMap(
+			final List<? extends E> list, final Supplier<? extends C> valueCollectionFactory) {
+		assert list != null;
+		final Map<E, IntArrayList> elementIndices = ForkJoinPool.commonPool()
+				.invoke(new ListIndexTask<E>(list.toArray(), 0, list.size()));
+
+		final List<Map.Entry<E, IntArrayList>> entries = new ArrayList<>(elementIndices.entrySet());
+		final List<C> valueColls = entries.parallelStream().map(entry -> {
+			final C valueColl = valueCollectionFactory.get();
+			valueColl.addAll(entry.getValue());
+			return valueColl;
+		}).collect(Collectors.toList());
+		final Map<E, C> decoratedMap = new HashMap<>(list.size() + 1);
+		for (int i = 0; i < entries.size(); ++i) {
+			decoratedMap.put(entries.get(i).getKey(), valueColls.get(i));
+		}
+		return new MultiValueObject2IntMap<>(decoratedMap, valueCollectionFactory);
+	}
+
+	/**
+	 * Creates a map of each element of an ordered set to its index like
+	 * {@link #createOrderedSetIndexMap(Collection)}, but splits the set into
+	 * chunks which are indexed in parallel in the
+	 * {@link ForkJoinPool#commonPool() common fork-join pool}.
+	 *
+	 * @param orderedSet
+	 *            The {@link Collection} of unique elements to index.
+	 * @return A new {@link Object2IntMap} equal to that created by
+	 *         {@code createOrderedSetIndexMap(orderedSet)}, returning
+	 *         {@code -1} for absent elements.
+	 * @throws IllegalArgumentException
+	 *             If the collection contains non-unique elements, reporting the
+	 *             same index as {@code createOrderedSetIndexMap(orderedSet)}.
+	 */
+	public static final <E> Object2IntMap<E> parallelCreateOrderedSetIndexMap(
+			final Collection<? extends E> orderedSet) {
+		assert orderedSet != null;
+		final AtomicInteger duplicateIndex = new AtomicInteger(Integer.MAX_VALUE);
+		final Object2IntOpenHashMap<E> result = ForkJoinPool.commonPool()
+				.invoke(new OrderedSetIndexTask<E>(orderedSet.toArray(), 0, orderedSet.size(), duplicateIndex));
+		if (duplicateIndex.get() < Integer.MAX_VALUE) {
+			throw new IllegalArgumentException(String.format(
+					"List passed as argument contains already-seen (i.e. non-unique) element at index %d.",
+					duplicateIndex.get()));
+		}
+		result.defaultReturnValue(-1);
+		return result;
+	}
+
 	public static final <E> void setIndexedElements(final List<E> list,
 			final Int2ObjectMap<? extends E> elementIndices) {
 		assert list != null;
@@ -0,0 +1,565 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+import it.unimi.dsi.fastutil.Hash;
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * An immutable combined {@link List} and {@link Set} implementation for
+ * {@link String} vocabularies which is backed by a memory-mapped file rather
+ * than by objects on the heap: Opening a vocabulary only maps the file, and
+ * several processes using the same file share its pages in the operating
+ * system page cache.
+ * <p>
+ * A file is created by {@link #write(List, Path)} and consists of a header
+ * followed by the end offset of the UTF-8 bytes of each element, the hash of
+ * each element, an open-addressed hash table of element indices and finally
+ * the UTF-8 bytes of all elements, all in little-endian byte order. The
+ * element hashes and the hash table are the same as those of
+ * {@link IndexedStringSet}, so element indices can likewise be looked up from
+ * characters or UTF-8 bytes without allocating any objects. Files larger
+ * than the maximum size of a single {@link MappedByteBuffer} are mapped in
+ * several chunks.
+ * </p>
+ * <p>
+ * Instances are safe for use by multiple threads.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class MappedIndexedStringSet extends AbstractList<String> implements RandomAccess, Set<String> {
+
+	/**
+	 * A view of the mapped hash table and arena for looking up elements using
+	 * {@link Utf8Encoding}, whose byte positions are file offsets.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class FileTable implements Utf8Encoding.Table {
+
+		@Override
+		public byte byteAt(final long position) {
+			return getByte(position);
+		}
+
+		@Override
+		public long end(final int index) {
+			return arenaOffset + endOffset(index);
+		}
+
+		@Override
+		public int hash(final int index) {
+			return getInt(hashesOffset + 4L * index);
+		}
+
+		@Override
+		public int indexAt(final int slot) {
+			final int result = getInt(tableOffset + 4L * slot);
+			if (result != EMPTY && (result < 0 || result >= size)) {
+				throw new IllegalStateException(String.format("Hash table slot %d refers to index %d.", slot, result));
+			}
+			return result;
+		}
+
+		@Override
+		public int mask() {
+			return mask;
+		}
+
+		@Override
+		public long start(final int index) {
+			return arenaOffset + startOffset(index);
+		}
+	}
+
+	private static final int CHUNK_BITS = 30;
+
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	/**
+	 * The value of a hash table slot which does not refer to any element.
+	 */
+	private static final int EMPTY = Utf8Encoding.EMPTY;
+
+	/**
+	 * The length of the file header: The magic number, the format version, the
+	 * number of elements, the hash table size and the arena length, padded to
+	 * a multiple of eight bytes.
+	 */
+	private static final int HEADER_LENGTH = 32;
+
+	private static final int MAGIC = 0x49535353;
+
+	private static final int VERSION = 1;
+
+	/**
+	 * Maps a vocabulary file created by {@link #write(List, Path)}, checking
+	 * only its header and length; Offsets and hash table entries are checked
+	 * as they are read, so a corrupt file causes an
+	 * {@link IllegalStateException} on access rather than reads outside of
+	 * it.
+	 *
+	 * @param path
+	 *            The {@link Path} of the file to map.
+	 * @return A new {@link MappedIndexedStringSet} backed by the file.
+	 * @throws IOException
+	 *             If an I/O error occurs while mapping the file or it is not a
+	 *             vocabulary file.
+	 */
+	public static MappedIndexedStringSet open(final Path path) throws IOException {
+		return open(path, false);
+	}
+
+	/**
+	 * Maps a vocabulary file created by {@link #write(List, Path)}.
+	 *
+	 * @param path
+	 *            The {@link Path} of the file to map.
+	 * @param verify
+	 *            If {@code true}, all end offsets and hash table slots are
+	 *            checked before returning, which reads the entire index of the
+	 *            file; Otherwise, only the header and length of the file are
+	 *            checked, as by {@link #open(Path)}.
+	 * @return A new {@link MappedIndexedStringSet} backed by the file.
+	 * @throws IOException
+	 *             If an I/O error occurs while mapping the file or it is not a
+	 *             valid vocabulary file.
+	 */
+	public static MappedIndexedStringSet open(final Path path, final boolean verify) throws IOException {
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			final long fileLength = channel.size();
+			if (fileLength < HEADER_LENGTH) {
+				throw new IOException(String.format("File \"%s\" is too short to be a vocabulary file.", path));
+			}
+			final ByteBuffer[] chunks = map(channel, MapMode.READ_ONLY, fileLength);
+			final ByteBuffer header = chunks[0];
+			if (header.getInt(0) != MAGIC) {
+				throw new IOException(String.format("File \"%s\" is not a vocabulary file.", path));
+			}
+			final int version = header.getInt(4);
+			if (version != VERSION) {
+				throw new IOException(String.format("Unsupported vocabulary file version %d.", version));
+			}
+			final int size = header.getInt(8);
+			final int tableSize = header.getInt(12);
+			final long arenaLength = header.getLong(16);
+			if (size < 0 || tableSize <= size || Integer.bitCount(tableSize) != 1 || arenaLength < 0
+					|| fileLength(size, tableSize, arenaLength) != fileLength) {
+				throw new IOException(String.format("Vocabulary file \"%s\" is corrupt.", path));
+			}
+			final MappedIndexedStringSet result = new MappedIndexedStringSet(chunks, size, tableSize, arenaLength);
+			if (verify && !result.isValid()) {
+				throw new IOException(String.format("Vocabulary file \"%s\" is corrupt.", path));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Writes a vocabulary file which can be {@link #open(Path) mapped} as a
+	 * {@link MappedIndexedStringSet}.
+	 *
+	 * @param elements
+	 *            The elements to write in order, which should be a
+	 *            {@link RandomAccess} list.
+	 * @param path
+	 *            The {@link Path} of the file to write, which is replaced if
+	 *            it already exists.
+	 * @throws IOException
+	 *             If an I/O error occurs while writing the file.
+	 * @throws IllegalArgumentException
+	 *             If the elements are not unique or contain an unpaired
+	 *             surrogate character.
+	 */
+	public static void write(final List<String> elements, final Path path) throws IOException {
+		final int size = elements.size();
+		// Hash all elements first in order to build the hash table in memory
+		// and to find the length of the file
+		final int[] hashes = new int[size];
+		long arenaLength = 0;
+		byte[] buffer = new byte[64];
+		{
+			int index = 0;
+			for (final String element : elements) {
+				buffer = ensureBufferCapacity(buffer, element.length() * 3);
+				final int length = Utf8Encoding.encode(element, buffer, 0);
+				hashes[index++] = Utf8Encoding.hash(buffer, 0, length);
+				arenaLength += length;
+			}
+		}
+		final int tableSize = HashCommon.arraySize(size + 1, Hash.DEFAULT_LOAD_FACTOR);
+		final int mask = tableSize - 1;
+		final int[] table = new int[tableSize];
+		Arrays.fill(table, EMPTY);
+		for (int index = 0; index < size; ++index) {
+			final int hash = hashes[index];
+			int slot = HashCommon.mix(hash) & mask;
+			for (int other; (other = table[slot]) != EMPTY; slot = slot + 1 & mask) {
+				if (hashes[other] == hash && elements.get(other).equals(elements.get(index))) {
+					throw new IllegalArgumentException("List contains non-unique elements.");
+				}
+			}
+			table[slot] = index;
+		}
+
+		try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+				StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			final ByteBuffer[] chunks = map(channel, MapMode.READ_WRITE, fileLength(size, tableSize, arenaLength));
+			final MappedIndexedStringSet file = new MappedIndexedStringSet(chunks, size, tableSize, arenaLength);
+			final ByteBuffer header = chunks[0];
+			header.putInt(0, MAGIC);
+			header.putInt(4, VERSION);
+			header.putInt(8, size);
+			header.putInt(12, tableSize);
+			header.putLong(16, arenaLength);
+			for (int index = 0; index < size; ++index) {
+				file.putInt(file.hashesOffset + 4L * index, hashes[index]);
+			}
+			for (int slot = 0; slot < tableSize; ++slot) {
+				file.putInt(file.tableOffset + 4L * slot, table[slot]);
+			}
+			long arenaEnd = 0;
+			{
+				int index = 0;
+				for (final String element : elements) {
+					final int length = Utf8Encoding.encode(element, buffer, 0);
+					for (int i = 0; i < length; ++i) {
+						file.putByte(file.arenaOffset + arenaEnd + i, buffer[i]);
+					}
+					arenaEnd += length;
+					file.putLong(file.endOffsetsOffset + 8L * index++, arenaEnd);
+				}
+			}
+			for (final ByteBuffer chunk : chunks) {
+				((MappedByteBuffer) chunk).force();
+			}
+		}
+	}
+
+	private static byte[] ensureBufferCapacity(final byte[] buffer, final int capacity) {
+		return capacity > buffer.length ? new byte[Math.max(capacity, buffer.length * 2)] : buffer;
+	}
+
+	private static long fileLength(final int size, final int tableSize, final long arenaLength) {
+		// The hash section is padded to a multiple of eight bytes
+		return HEADER_LENGTH + 8L * size + (4L * size + 7 & -8L) + 4L * tableSize + arenaLength;
+	}
+
+	private static ByteBuffer[] map(final FileChannel channel, final MapMode mode, final long length)
+			throws IOException {
+		final ByteBuffer[] result = new ByteBuffer[(int) (length + CHUNK_MASK >>> CHUNK_BITS)];
+		for (int i = 0; i < result.length; ++i) {
+			final long position = (long) i << CHUNK_BITS;
+			result[i] = channel.map(mode, position, Math.min(CHUNK_MASK + 1, length - position))
+					.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		return result;
+	}
+
+	/**
+	 * The length of the UTF-8 bytes of all elements.
+	 */
+	private final long arenaLength;
+
+	/**
+	 * The file offset of the UTF-8 bytes of all elements.
+	 */
+	private final long arenaOffset;
+
+	/**
+	 * The file chunks, each of which is {@code 2^CHUNK_BITS} bytes long except
+	 * for the last one; Since all sections start at multiples of eight bytes,
+	 * no {@code int} or {@code long} value spans two chunks.
+	 */
+	private final ByteBuffer[] chunks;
+
+	/**
+	 * The file offset of the end offset in the arena of each element.
+	 */
+	private final long endOffsetsOffset;
+
+	/**
+	 * The file offset of the hash of each element.
+	 */
+	private final long hashesOffset;
+
+	/**
+	 * The {@link FileTable} used for looking up elements.
+	 */
+	private final Utf8Encoding.Table lookupTable;
+
+	/**
+	 * The mask for wrapping indices of the hash table.
+	 */
+	private final int mask;
+
+	private final int size;
+
+	/**
+	 * The file offset of the hash table.
+	 */
+	private final long tableOffset;
+
+	private MappedIndexedStringSet(final ByteBuffer[] chunks, final int size, final int tableSize,
+			final long arenaLength) {
+		this.chunks = chunks;
+		this.size = size;
+		this.arenaLength = arenaLength;
+		mask = tableSize - 1;
+		endOffsetsOffset = HEADER_LENGTH;
+		hashesOffset = endOffsetsOffset + 8L * size;
+		tableOffset = hashesOffset + (4L * size + 7 & -8L);
+		arenaOffset = tableOffset + 4L * tableSize;
+		lookupTable = new FileTable();
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return indexOf(o) >= 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof MappedIndexedStringSet) {
+			result = super.equals(obj);
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	@Override
+	public String get(final int index) {
+		if (index < 0 || index >= size) {
+			throw new IndexOutOfBoundsException(String.format("Index: %d, Size: %d", index, size));
+		}
+		final long start = startOffset(index);
+		final long end = endOffset(index);
+		if (start > end || end - start > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException(String.format("Element %d has an invalid length.", index));
+		}
+		final byte[] bytes = new byte[(int) (end - start)];
+		for (int i = 0; i < bytes.length; ++i) {
+			bytes[i] = getByte(arenaOffset + start + i);
+		}
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * Gets the index of the element equal to a range of a {@code char[]}
+	 * without allocating any objects.
+	 *
+	 * @param chars
+	 *            The array containing the characters to look up.
+	 * @param offset
+	 *            The index of the first character.
+	 * @param length
+	 *            The number of characters.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOf(final char[] chars, final int offset, final int length) {
+		return Utf8Encoding.indexOf(lookupTable, chars, offset, offset + length);
+	}
+
+	/**
+	 * Gets the index of the element equal to a {@link CharSequence} without
+	 * allocating any objects.
+	 *
+	 * @param s
+	 *            The characters to look up.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOf(final CharSequence s) {
+		return indexOf(s, 0, s.length());
+	}
+
+	/**
+	 * Gets the index of the element equal to a range of a
+	 * {@link CharSequence} without allocating any objects.
+	 *
+	 * @param s
+	 *            The sequence containing the characters to look up.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOf(final CharSequence s, final int start, final int end) {
+		return Utf8Encoding.indexOf(lookupTable, s, start, end);
+	}
+
+	@Override
+	public int indexOf(final Object o) {
+		return o instanceof CharSequence ? indexOf((CharSequence) o) : EMPTY;
+	}
+
+	/**
+	 * Gets the index of the element encoded by a range of UTF-8 bytes in a
+	 * {@code byte[]} without allocating any objects.
+	 *
+	 * @param bytes
+	 *            The array containing the bytes to look up.
+	 * @param offset
+	 *            The index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The index of the element or {@code -1} if the set does not
+	 *         contain it.
+	 */
+	public int indexOfUtf8(final byte[] bytes, final int offset, final int length) {
+		return Utf8Encoding.indexOfUtf8(lookupTable, bytes, offset, length);
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	@Override
+	public int lastIndexOf(final Object o) {
+		return indexOf(o);
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public Spliterator<String> spliterator() {
+		return Spliterators.spliterator(this,
+				Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL | Spliterator.IMMUTABLE);
+	}
+
+	/**
+	 * @param index
+	 *            The index of an element.
+	 * @return The end offset of the element in the arena, which is checked to
+	 *         lie within the arena so that no lookup can read outside of it.
+	 */
+	private long endOffset(final int index) {
+		final long result = getLong(endOffsetsOffset + 8L * index);
+		if (result < 0 || result > arenaLength) {
+			throw new IllegalStateException(String.format("End offset %d of element %d is outside the arena.",
+					result, index));
+		}
+		return result;
+	}
+
+	private byte getByte(final long position) {
+		return chunks[(int) (position >>> CHUNK_BITS)].get((int) (position & CHUNK_MASK));
+	}
+
+	private int getInt(final long position) {
+		return chunks[(int) (position >>> CHUNK_BITS)].getInt((int) (position & CHUNK_MASK));
+	}
+
+	private long getLong(final long position) {
+		return chunks[(int) (position >>> CHUNK_BITS)].getLong((int) (position & CHUNK_MASK));
+	}
+
+	/**
+	 * Checks that the end offsets and the hash table of the file only refer
+	 * to data within the file and that the hash table is complete, which
+	 * reads the entire index of the file.
+	 *
+	 * @return {@code true} iff the end offsets are ascending, each element is
+	 *         short enough to be decoded into an array and the last element
+	 *         ends at the end of the arena, and the hash table contains the
+	 *         index of each element exactly once.
+	 */
+	private boolean isValid() {
+		boolean result = true;
+		{
+			long start = 0;
+			for (int index = 0; result && index < size; ++index) {
+				final long end = getLong(endOffsetsOffset + 8L * index);
+				result = start <= end && end <= arenaLength && end - start <= Integer.MAX_VALUE - 8;
+				start = end;
+			}
+			result &= start == arenaLength;
+		}
+		final long[] tableIndices = new long[(size + 63) >>> 6];
+		int tableIndexCount = 0;
+		for (int slot = 0; result && slot <= mask; ++slot) {
+			final int index = getInt(tableOffset + 4L * slot);
+			if (index != EMPTY) {
+				result = 0 <= index && index < size && (tableIndices[index >>> 6] & 1L << index) == 0L;
+				if (result) {
+					tableIndices[index >>> 6] |= 1L << index;
+					++tableIndexCount;
+				}
+			}
+		}
+		return result && tableIndexCount == size;
+	}
+
+	private void putByte(final long position, final byte value) {
+		chunks[(int) (position >>> CHUNK_BITS)].put((int) (position & CHUNK_MASK), value);
+	}
+
+	private void putInt(final long position, final int value) {
+		chunks[(int) (position >>> CHUNK_BITS)].putInt((int) (position & CHUNK_MASK), value);
+	}
+
+	private void putLong(final long position, final long value) {
+		chunks[(int) (position >>> CHUNK_BITS)].putLong((int) (position & CHUNK_MASK), value);
+	}
+
+	private long startOffset(final int index) {
+		return index == 0 ? 0L : endOffset(index - 1);
+	}
+
+}
@@ -15,22 +15,40 @@
  */
 package com.github.errantlinguist.fastutil.ints;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Supplier;
 
+import it.unimi.dsi.fastutil.ints.Int2IntMap;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
 import it.unimi.dsi.fastutil.ints.IntCollection;
 import it.unimi.dsi.fastutil.ints.IntCollections;
 import it.unimi.dsi.fastutil.ints.IntIterable;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 
 /**
  * A {@link Map} which decorates another {@link Map}, which has
  * {@link IntCollection collections} of values for each key.
+ * <p>
+ * The number of keys each value is mapped to is counted as values are put and
+ * removed through this map, so checking if any key maps to a value and
+ * getting {@link #valueFrequency(int) the frequency of a value} take constant
+ * time. Value collections modified directly rather than through this map are
+ * not counted.
+ * </p>
  *
  * @param <K>
  *            The key type.
@@ -47,6 +65,17 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	 */
 	private static final long serialVersionUID = 682678645646614813L;
 
+	/**
+	 * The ratio of the size of a value set to the number of remaining
+	 * intersection candidates above which each candidate is looked up in the
+	 * set rather than the set being merged with the candidates: A lookup
+	 * skips through the set by its own index, which is faster than iterating
+	 * over a set many times larger than the candidates.
+	 */
+	private static final int LOOKUP_SIZE_RATIO = 8;
+
+	private static final Comparator<IntCollection> SIZE_COMPARATOR = Comparator.comparingInt(IntCollection::size);
+
 	/**
 	 * Increments the values for a given key which occur within a given range.
 	 *
@@ -60,6 +89,7 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	 *            The inclusive minimum of the key values to increment.
 	 * @param toValue
 	 *            The exclusive maximum of the key values to increment.
+	 * @see #shiftValues(MultiValueObject2IntMap, int, int, int)
 	 */
 	public static final <K, C extends IntSortedSet> void incrementValues(final MultiValueObject2IntMap<K, C> multimap,
 			final Collection<? extends K> keysToIncrement, final int increment, final int fromValue,
@@ -71,6 +101,158 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		}
 	}
 
+	/**
+	 * Finds the values which are mapped to by all of a given set of keys.
+	 *
+	 * @param multimap
+	 *            The {@link MultiValueObject2IntMap} to query.
+	 * @param dest
+	 *            The {@link IntArrayList} to write the values to in ascending
+	 *            order, which is cleared first so that it can be reused
+	 *            between queries.
+	 * @param keys
+	 *            The keys to intersect the values of.
+	 * @return {@code dest}; If no keys are given, it is empty.
+	 */
+	@SafeVarargs
+	public static final <K, C extends IntSortedSet> IntArrayList intersect(final MultiValueObject2IntMap<K, C> multimap,
+			final IntArrayList dest, final K... keys) {
+		// The value sets are read element-wise rather than passing the
+		// generic varargs array on to another method
+		final IntSortedSet[] keyValues = new IntSortedSet[keys.length];
+		for (int i = 0; i < keys.length; ++i) {
+			keyValues[i] = multimap.get(keys[i]);
+		}
+		return intersectValues(dest, keyValues);
+	}
+
+	/**
+	 * Finds the values which are mapped to by all of a given set of keys.
+	 *
+	 * @param multimap
+	 *            The {@link MultiValueObject2IntMap} to query.
+	 * @param keys
+	 *            The keys to intersect the values of.
+	 * @return The values in ascending order.
+	 * @see #intersect(MultiValueObject2IntMap, IntArrayList, Object...)
+	 */
+	@SafeVarargs
+	public static final <K, C extends IntSortedSet> int[] intersect(final MultiValueObject2IntMap<K, C> multimap,
+			final K... keys) {
+		final IntSortedSet[] keyValues = new IntSortedSet[keys.length];
+		for (int i = 0; i < keys.length; ++i) {
+			keyValues[i] = multimap.get(keys[i]);
+		}
+		return intersectValues(new IntArrayList(), keyValues).toIntArray();
+	}
+
+	/**
+	 * Finds the values which are mapped to by any of a given set of keys by
+	 * merging their value sets.
+	 *
+	 * @param multimap
+	 *            The {@link MultiValueObject2IntMap} to query.
+	 * @param dest
+	 *            The {@link IntArrayList} to write the values to in ascending
+	 *            order, which is cleared first so that it can be reused
+	 *            between queries.
+	 * @param keys
+	 *            The keys to unite the values of.
+	 * @return {@code dest}.
+	 */
+	@SafeVarargs
+	public static final <K, C extends IntSortedSet> IntArrayList union(final MultiValueObject2IntMap<K, C> multimap,
+			final IntArrayList dest, final K... keys) {
+		// The value sets are read element-wise rather than passing the
+		// generic varargs array on to another method
+		final IntSortedSet[] keyValues = new IntSortedSet[keys.length];
+		for (int i = 0; i < keys.length; ++i) {
+			keyValues[i] = multimap.get(keys[i]);
+		}
+		return unionValues(dest, keyValues);
+	}
+
+	/**
+	 * Finds the values which are mapped to by any of a given set of keys.
+	 *
+	 * @param multimap
+	 *            The {@link MultiValueObject2IntMap} to query.
+	 * @param keys
+	 *            The keys to unite the values of.
+	 * @return The values in ascending order.
+	 * @see #union(MultiValueObject2IntMap, IntArrayList, Object...)
+	 */
+	@SafeVarargs
+	public static final <K, C extends IntSortedSet> int[] union(final MultiValueObject2IntMap<K, C> multimap,
+			final K... keys) {
+		final IntSortedSet[] keyValues = new IntSortedSet[keys.length];
+		for (int i = 0; i < keys.length; ++i) {
+			keyValues[i] = multimap.get(keys[i]);
+		}
+		return unionValues(new IntArrayList(), keyValues).toIntArray();
+	}
+
+	/**
+	 * Adds a given amount to all values of all keys which occur within a given
+	 * range, e.g.&nbsp;for updating positions after inserting into or removing
+	 * from the indexed sequence.
+	 * <p>
+	 * If the shifted values of a key do not reach or pass any of its values
+	 * outside the range, which is always the case for shifting all values
+	 * after an insertion point up or all values after a removed range down,
+	 * value sets which are {@link CompressedIntSortedSet} instances or
+	 * {@link AdaptiveIntSortedSet} instances in their array representation are
+	 * shifted in place without copying them. All other value sets, including
+	 * {@link it.unimi.dsi.fastutil.ints.IntRBTreeSet} instances and
+	 * {@code AdaptiveIntSortedSet} instances in their tree representation,
+	 * have the values in the range removed and the shifted values added, and
+	 * shifted values equal to values outside the range are merged with them.
+	 * </p>
+	 * <p>
+	 * Only value sets whose values overlap the range are visited, and the
+	 * count of each distinct shifted value is moved once for all sets rather
+	 * than once per set containing it.
+	 * </p>
+	 *
+	 * @param multimap
+	 *            The {@link MultiValueObject2IntMap} to shift the values of.
+	 * @param fromValue
+	 *            The inclusive minimum of the values to shift.
+	 * @param toValue
+	 *            The exclusive maximum of the values to shift.
+	 * @param delta
+	 *            The amount to add to the values.
+	 * @throws IllegalArgumentException
+	 *             If adding the amount to any of the values would overflow, in
+	 *             which case no values are shifted.
+	 */
+	public static final <K, C extends IntSortedSet> void shiftValues(final MultiValueObject2IntMap<K, C> multimap,
+			final int fromValue, final int toValue, final int delta) {
+		if (delta != 0 && fromValue < toValue) {
+			// Check all values before changing anything
+			final List<IntSortedSet> ranges = new ArrayList<>();
+			for (final C values : multimap.decorated.values()) {
+				if (!values.isEmpty() && values.firstInt() < toValue && values.lastInt() >= fromValue) {
+					final IntSortedSet range = values.subSet(fromValue, toValue);
+					if (!range.isEmpty()) {
+						if (range.firstInt() + (long) delta < Integer.MIN_VALUE
+								|| range.lastInt() + (long) delta > Integer.MAX_VALUE) {
+							throw new IllegalArgumentException(String.format(
+									"Shifting values in [%d, %d) by %d overflows.", fromValue, toValue, delta));
+						}
+						ranges.add(values);
+					}
+				}
+			}
+			if (!ranges.isEmpty()) {
+				multimap.shiftCounts(fromValue, toValue, delta);
+				for (final IntSortedSet values : ranges) {
+					multimap.shiftValues(values, fromValue, toValue, delta);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Adds one value for each given key, incrementing the value added for the
 	 * next key by one.
@@ -142,10 +324,163 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	}
 
 	/**
-	 * A {@link IntCollection} of all elements for all keys in the
-	 * {@link #getDecorated() decorated map}.
+	 * @param dest
+	 *            The {@link IntArrayList} to write the values which are in all
+	 *            given sets to in ascending order, which is cleared first.
+	 * @param keyValues
+	 *            The value set of each key, which is {@code null} for keys
+	 *            without values; This array is reordered.
+	 * @return {@code dest}; If any set is missing or empty, it is empty.
+	 */
+	private static IntArrayList intersectValues(final IntArrayList dest, final IntSortedSet[] keyValues) {
+		dest.clear();
+		boolean hasValues = keyValues.length > 0;
+		for (int i = 0; i < keyValues.length && hasValues; ++i) {
+			hasValues = keyValues[i] != null && !keyValues[i].isEmpty();
+		}
+		if (hasValues) {
+			// Start with the smallest set, so that there are as few
+			// candidates as possible to check against the other sets
+			Arrays.sort(keyValues, SIZE_COMPARATOR);
+			dest.addAll(keyValues[0]);
+			final int[] candidates = dest.elements();
+			int count = dest.size();
+			for (int i = 1; i < keyValues.length && count > 0; ++i) {
+				count = retainValues(candidates, count, keyValues[i]);
+			}
+			dest.size(count);
+		}
+		return dest;
+	}
+
+	/**
+	 * Removes the candidates of an intersection which are not in a given set.
+	 *
+	 * @param candidates
+	 *            The candidates in ascending order, which are compacted in
+	 *            place.
+	 * @param count
+	 *            The number of candidates.
+	 * @param values
+	 *            The set to intersect the candidates with.
+	 * @return The number of candidates remaining.
+	 */
+	private static int retainValues(final int[] candidates, final int count, final IntSortedSet values) {
+		int result = 0;
+		if (values.size() / LOOKUP_SIZE_RATIO > count) {
+			for (int i = 0; i < count; ++i) {
+				if (values.contains(candidates[i])) {
+					candidates[result++] = candidates[i];
+				}
+			}
+		} else {
+			final IntIterator iter = values.iterator();
+			int value = iter.nextInt();
+			for (int i = 0; i < count; ++i) {
+				final int candidate = candidates[i];
+				while (value < candidate && iter.hasNext()) {
+					value = iter.nextInt();
+				}
+				if (value == candidate) {
+					candidates[result++] = candidate;
+				} else if (value < candidate) {
+					// The set has no more values not less than the candidate
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Restores the order of a min-heap of indices after the key of the index
+	 * at a given position has increased.
+	 *
+	 * @param heap
+	 *            The heap of indices.
+	 * @param heapSize
+	 *            The number of indices in the heap.
+	 * @param keys
+	 *            The key of each index.
+	 * @param pos
+	 *            The position of the index to move down the heap.
+	 */
+	static void siftDown(final int[] heap, final int heapSize, final int[] keys, final int pos) {
+		final int idx = heap[pos];
+		int current = pos;
+		int child;
+		while ((child = 2 * current + 1) < heapSize) {
+			if (child + 1 < heapSize && keys[heap[child + 1]] < keys[heap[child]]) {
+				++child;
+			}
+			if (keys[heap[child]] >= keys[idx]) {
+				break;
+			}
+			heap[current] = heap[child];
+			current = child;
+		}
+		heap[current] = idx;
+	}
+
+	/**
+	 * @param dest
+	 *            The {@link IntArrayList} to write the values which are in any
+	 *            given set to in ascending order, which is cleared first.
+	 * @param keyValues
+	 *            The value set of each key, which is {@code null} for keys
+	 *            without values.
+	 * @return {@code dest}.
+	 */
+	private static IntArrayList unionValues(final IntArrayList dest, final IntSortedSet[] keyValues) {
+		dest.clear();
+		// Iterators over the values of each key, with the current value of
+		// each being its head
+		final IntIterator[] iters = new IntIterator[keyValues.length];
+		final int[] heads = new int[keyValues.length];
+		// A min-heap of the indices of the iterators ordered by their heads
+		final int[] heap = new int[keyValues.length];
+		int heapSize = 0;
+		int maxCount = 0;
+		for (final IntSortedSet values : keyValues) {
+			if (values != null && !values.isEmpty()) {
+				final IntIterator iter = values.iterator();
+				iters[heapSize] = iter;
+				heads[heapSize] = iter.nextInt();
+				heap[heapSize] = heapSize;
+				++heapSize;
+				maxCount += values.size();
+			}
+		}
+		for (int i = heapSize / 2 - 1; i >= 0; --i) {
+			siftDown(heap, heapSize, heads, i);
+		}
+
+		dest.size(maxCount);
+		final int[] united = dest.elements();
+		int count = 0;
+		while (heapSize > 0) {
+			final int least = heap[0];
+			final int value = heads[least];
+			if (count < 1 || united[count - 1] != value) {
+				united[count++] = value;
+			}
+			if (iters[least].hasNext()) {
+				heads[least] = iters[least].nextInt();
+			} else {
+				heap[0] = heap[--heapSize];
+			}
+			siftDown(heap, heapSize, heads, 0);
+		}
+		dest.size(count);
+		return dest;
+	}
+
+	/**
+	 * The number of occurrences of each value in the value collections of the
+	 * {@link #getDecorated() decorated map}, containing only values which
+	 * occur at least once.
 	 */
-	private final transient IntCollection allValues;
+	private transient Int2IntOpenHashMap valueCounts;
 
 	/**
 	 * The decorated {@link Map} instance.
@@ -168,13 +503,34 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	public MultiValueObject2IntMap(final Map<K, C> decorated, final Supplier<? extends C> valueCollectionFactory) {
 		this.decorated = decorated;
 		this.valueCollectionFactory = valueCollectionFactory;
-		this.allValues = com.github.errantlinguist.fastutil.ints.IntCollections.createAllElementSet(decorated.values());
+		this.valueCounts = createValueCounts(decorated.values());
+	}
 
+	/**
+	 * Creates a map whose value counts have already been counted, e.g.&nbsp;
+	 * while reading the value collections from a stream.
+	 *
+	 * @param decorated
+	 *            The {@link Map} to decorate.
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys.
+	 * @param valueCounts
+	 *            The number of occurrences of each value in the value
+	 *            collections of the decorated map, containing only values
+	 *            which occur at least once.
+	 */
+	MultiValueObject2IntMap(final Map<K, C> decorated, final Supplier<? extends C> valueCollectionFactory,
+			final Int2IntOpenHashMap valueCounts) {
+		this.decorated = decorated;
+		this.valueCollectionFactory = valueCollectionFactory;
+		this.valueCounts = valueCounts;
 	}
 
 	@Override
 	public void clear() {
 		decorated.clear();
+		valueCounts.clear();
 	}
 
 	@Override
@@ -205,7 +561,7 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 
 	@Override
 	public boolean containsValue(final Object value) {
-		return allValues.contains(value);
+		return value instanceof Integer && valueCounts.containsKey(((Integer) value).intValue());
 	}
 
 	@Override
@@ -236,6 +592,18 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		return result;
 	}
 
+	/**
+	 * Creates an immutable snapshot of this map which stores the values of all
+	 * keys in a single array, for indices which no longer change once they
+	 * have been built.
+	 *
+	 * @return A new {@link FrozenMultiValueObject2IntMap} containing the values
+	 *         of each key in the order they are iterated over.
+	 */
+	public FrozenMultiValueObject2IntMap<K> freeze() {
+		return new FrozenMultiValueObject2IntMap<>(decorated);
+	}
+
 	@Override
 	public C get(final Object key) {
 		return decorated.get(key);
@@ -246,7 +614,7 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	 *         for all keys in the {@link #getDecorated() decorated map}.
 	 */
 	public IntCollection getAllValues() {
-		return IntCollections.unmodifiable(allValues);
+		return IntCollections.unmodifiable(valueCounts.keySet());
 	}
 
 	/**
@@ -301,17 +669,18 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		final C result = decorated.put(key, value);
 
 		if (result != null) {
-			allValues.removeAll(result);
+			decrementCounts(result);
 		}
-		allValues.addAll(value);
+		incrementCounts(value);
 
 		return result;
 	}
 
 	@Override
 	public void putAll(final Map<? extends K, ? extends C> m) {
-		decorated.putAll(m);
-		m.values().forEach(coll -> allValues.addAll(coll));
+		for (final Entry<? extends K, ? extends C> entry : m.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
 	}
 
 	/**
@@ -327,7 +696,7 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		final C values = getValues(key);
 		final boolean result = values.add(value);
 		if (result) {
-			allValues.add(value);
+			valueCounts.addTo(value, 1);
 		}
 		return result;
 	}
@@ -343,9 +712,14 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	 */
 	public boolean putValues(final K key, final IntCollection values) {
 		final C keyValues = getValues(key);
-		final boolean result = keyValues.addAll(values);
-		if (result) {
-			allValues.addAll(values);
+		boolean result = false;
+		// Add the values one by one in order to count only those which were
+		// not already mapped to the key
+		for (final int value : values) {
+			if (keyValues.add(value)) {
+				valueCounts.addTo(value, 1);
+				result = true;
+			}
 		}
 		return result;
 	}
@@ -355,7 +729,7 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		final C result = decorated.remove(key);
 
 		if (result != null) {
-			allValues.removeAll(result);
+			decrementCounts(result);
 		}
 
 		return result;
@@ -378,9 +752,9 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		if (values == null) {
 			result = false;
 		} else {
-			result = values.remove(value);
+			result = values.rem(value);
 			if (result) {
-				allValues.remove(value);
+				decrementCount(value);
 			}
 		}
 
@@ -398,14 +772,14 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 	 * @return {@code true} if at least one value was successfully removed.
 	 */
 	public boolean removeValues(final K key, final IntCollection values) {
-		final boolean result;
+		boolean result = false;
 		final C keyValues = decorated.get(key);
-		if (values == null) {
-			result = false;
-		} else {
-			result = keyValues.removeAll(values);
-			if (result) {
-				allValues.removeAll(values);
+		if (keyValues != null) {
+			for (final int value : values) {
+				if (keyValues.rem(value)) {
+					decrementCount(value);
+					result = true;
+				}
 			}
 		}
 
@@ -433,11 +807,84 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		return builder.toString();
 	}
 
+	/**
+	 * Counts the keys a given value is mapped to.
+	 *
+	 * @param value
+	 *            The value to count.
+	 * @return The number of occurrences of the value in the value collections
+	 *         of all keys, which for sets of values is the number of keys
+	 *         mapped to it.
+	 */
+	public int valueFrequency(final int value) {
+		return valueCounts.get(value);
+	}
+
 	@Override
 	public Collection<C> values() {
 		return decorated.values();
 	}
 
+	static Int2IntOpenHashMap createValueCounts(final Collection<? extends IntCollection> valueColls) {
+		final Int2IntOpenHashMap result = new Int2IntOpenHashMap();
+		for (final IntCollection valueColl : valueColls) {
+			for (final int value : valueColl) {
+				result.addTo(value, 1);
+			}
+		}
+		return result;
+	}
+
+	private void decrementCount(final int value) {
+		final int oldCount = valueCounts.addTo(value, -1);
+		assert oldCount > 0;
+		if (oldCount == 1) {
+			valueCounts.remove(value);
+		}
+	}
+
+	private void decrementCounts(final IntCollection values) {
+		for (final int value : values) {
+			decrementCount(value);
+		}
+	}
+
+	private void incrementCounts(final IntCollection values) {
+		for (final int value : values) {
+			valueCounts.addTo(value, 1);
+		}
+	}
+
+	/**
+	 * Checks if the values of a set within a given range can be shifted
+	 * without changing their order relative to the other values of the set.
+	 *
+	 * @param values
+	 *            The set of values.
+	 * @param range
+	 *            The non-empty view of the values in the range.
+	 * @param fromValue
+	 *            The inclusive minimum of the values to shift.
+	 * @param toValue
+	 *            The exclusive maximum of the values to shift.
+	 * @param delta
+	 *            The amount to add to the values.
+	 * @return {@code true} iff no shifted value would reach or pass a value
+	 *         outside the range.
+	 */
+	private static boolean isShiftableInPlace(final IntSortedSet values, final IntSortedSet range,
+			final int fromValue, final int toValue, final int delta) {
+		final boolean result;
+		if (delta > 0) {
+			final IntSortedSet following = values.tailSet(toValue);
+			result = following.isEmpty() || following.firstInt() > range.lastInt() + delta;
+		} else {
+			final IntSortedSet preceding = values.headSet(fromValue);
+			result = preceding.isEmpty() || preceding.lastInt() < range.firstInt() + delta;
+		}
+		return result;
+	}
+
 	private boolean isEquivalentTo(final MultiValueObject2IntMap<?, ?> other) {
 		assert other != null;
 		final Map<K, C> decorated = getDecorated();
@@ -451,4 +898,75 @@ public final class MultiValueObject2IntMap<K, C extends IntCollection> implement
 		return true;
 	}
 
+	/**
+	 * Moves the count of each value within a given range to the value plus a
+	 * given amount, as if every occurrence of each value were shifted without
+	 * being merged with an equal value outside the range; Each distinct value
+	 * is therefore removed and re-added only once regardless of how many sets
+	 * contain it.
+	 */
+	private void shiftCounts(final int fromValue, final int toValue, final int delta) {
+		final IntArrayList shiftedValues = new IntArrayList();
+		final IntArrayList shiftedCounts = new IntArrayList();
+		if ((long) toValue - fromValue <= valueCounts.size()) {
+			// Probing each value in the range is cheaper than a pass over all
+			// counted values
+			for (int value = fromValue; value < toValue; ++value) {
+				final int count = valueCounts.remove(value);
+				if (count > 0) {
+					shiftedValues.add(value);
+					shiftedCounts.add(count);
+				}
+			}
+		} else {
+			final ObjectIterator<Int2IntMap.Entry> entryIter = valueCounts.int2IntEntrySet().fastIterator();
+			while (entryIter.hasNext()) {
+				final Int2IntMap.Entry entry = entryIter.next();
+				final int value = entry.getIntKey();
+				if (value >= fromValue && value < toValue) {
+					shiftedValues.add(value);
+					shiftedCounts.add(entry.getIntValue());
+					entryIter.remove();
+				}
+			}
+		}
+		// Only add the shifted counts after all counts in the range have been
+		// removed, since a shifted value may itself be in the range
+		for (int i = 0; i < shiftedValues.size(); ++i) {
+			valueCounts.addTo(shiftedValues.getInt(i) + delta, shiftedCounts.getInt(i));
+		}
+	}
+
+	/**
+	 * Adds a given amount to the values of a single set which occur within a
+	 * given range after {@link #shiftCounts(int, int, int) their counts have
+	 * been shifted}, so that counts only change here for shifted values which
+	 * are merged with an equal value outside the range.
+	 */
+	private void shiftValues(final IntSortedSet values, final int fromValue, final int toValue, final int delta) {
+		final IntSortedSet range = values.subSet(fromValue, toValue);
+		if (values instanceof CompressedIntSortedSet
+				&& isShiftableInPlace(values, range, fromValue, toValue, delta)) {
+			((CompressedIntSortedSet) values).shiftInPlace(fromValue, toValue, delta);
+		} else if (values instanceof AdaptiveIntSortedSet
+				&& isShiftableInPlace(values, range, fromValue, toValue, delta)) {
+			((AdaptiveIntSortedSet) values).shiftInPlace(fromValue, toValue, delta);
+		} else {
+			final int[] shifted = range.toIntArray();
+			range.clear();
+			for (final int value : shifted) {
+				if (!values.add(value + delta)) {
+					// Merged with a value outside the range, which was
+					// already counted for this set
+					decrementCount(value + delta);
+				}
+			}
+		}
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		valueCounts = createValueCounts(decorated.values());
+	}
+
 }
@@ -0,0 +1,397 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import it.unimi.dsi.fastutil.longs.LongSortedSet;
+
+/**
+ * A {@link Map} which decorates another {@link Map}, which has
+ * {@link LongCollection collections} of {@code long} values for each key,
+ * e.g.&nbsp;for the positions of elements in sequences longer than
+ * {@link Integer#MAX_VALUE}. This is the counterpart of
+ * {@link MultiValueObject2IntMap} for {@code long} values; Using
+ * {@link SplitLongSortedSet} instances as value collections keeps positions
+ * about as compact as {@code int} positions would be.
+ * <p>
+ * Unlike in {@code MultiValueObject2IntMap}, the number of keys each value is
+ * mapped to is not counted: A count table with an entry for every position of
+ * a sequence this long would cost more per value than the positions
+ * themselves and could not hold more than 2<sup>30</sup> values anyway.
+ * Checking if any key maps to a value and getting
+ * {@link #valueFrequency(long) the frequency of a value} therefore look the
+ * value up in the collection of each key.
+ * </p>
+ *
+ * @param <K>
+ *            The key type.
+ * @param <C>
+ *            The type of {@code LongCollection} object used to contain the
+ *            values for each key.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class MultiValueObject2LongMap<K, C extends LongCollection> implements Map<K, C>, Serializable {
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 5921883207142615784L;
+
+	/**
+	 * Adds a given amount to all values within a given range.
+	 *
+	 * @param multimap
+	 *            The {@link MultiValueObject2LongMap} to shift the values of.
+	 * @param fromValue
+	 *            The inclusive minimum of the values to shift.
+	 * @param toValue
+	 *            The exclusive maximum of the values to shift.
+	 * @param delta
+	 *            The amount to add to the values.
+	 * @throws IllegalArgumentException
+	 *             If adding the amount to any of the values would overflow, in
+	 *             which case no values are shifted.
+	 */
+	public static final <K, C extends LongSortedSet> void shiftValues(final MultiValueObject2LongMap<K, C> multimap,
+			final long fromValue, final long toValue, final long delta) {
+		if (delta != 0 && fromValue < toValue) {
+			// Check all values before changing anything
+			final List<LongSortedSet> ranges = new ArrayList<>();
+			for (final C values : multimap.decorated.values()) {
+				if (!values.isEmpty() && values.firstLong() < toValue && values.lastLong() >= fromValue) {
+					final LongSortedSet range = values.subSet(fromValue, toValue);
+					if (!range.isEmpty()) {
+						if (delta < 0 && range.firstLong() < Long.MIN_VALUE - delta
+								|| delta > 0 && range.lastLong() > Long.MAX_VALUE - delta) {
+							throw new IllegalArgumentException(String.format(
+									"Shifting values in [%d, %d) by %d overflows.", fromValue, toValue, delta));
+						}
+						ranges.add(values);
+					}
+				}
+			}
+			for (final LongSortedSet values : ranges) {
+				shiftValues(values, fromValue, toValue, delta);
+			}
+		}
+	}
+
+	/**
+	 * Adds a given amount to the values of a single set which occur within a
+	 * given range.
+	 */
+	private static void shiftValues(final LongSortedSet values, final long fromValue, final long toValue,
+			final long delta) {
+		final LongSortedSet range = values.subSet(fromValue, toValue);
+		final long[] shifted = range.toLongArray();
+		range.clear();
+		for (final long value : shifted) {
+			values.add(value + delta);
+		}
+	}
+
+	/**
+	 * The decorated {@link Map} instance.
+	 */
+	private final Map<K, C> decorated;
+
+	/**
+	 * The {@link Supplier} used for creating new value collections for the map
+	 * keys.
+	 */
+	private final Supplier<? extends C> valueCollectionFactory;
+
+	/**
+	 * @param decorated
+	 *            The {@link Map} to decorate.
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new value collections
+	 *            for the map keys.
+	 */
+	public MultiValueObject2LongMap(final Map<K, C> decorated, final Supplier<? extends C> valueCollectionFactory) {
+		this.decorated = decorated;
+		this.valueCollectionFactory = valueCollectionFactory;
+	}
+
+	@Override
+	public void clear() {
+		decorated.clear();
+	}
+
+	@Override
+	public boolean containsKey(final Object key) {
+		return decorated.containsKey(key);
+	}
+
+	/**
+	 * Checks if a given value is mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to check the values of.
+	 * @param value
+	 *            The value to check.
+	 * @return {@code true} iff the given key maps to the given value.
+	 */
+	public boolean containsValue(final K key, final long value) {
+		final C keyValues = decorated.get(key);
+		return keyValues != null && keyValues.contains(value);
+	}
+
+	/**
+	 * Checks if any key is mapped to a given value by looking it up in the
+	 * value collection of each key.
+	 */
+	@Override
+	public boolean containsValue(final Object value) {
+		boolean result = false;
+		if (value instanceof Long) {
+			final long v = ((Long) value).longValue();
+			for (final C values : decorated.values()) {
+				if (values.contains(v)) {
+					result = true;
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Set<Entry<K, C>> entrySet() {
+		return decorated.entrySet();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#equals(java.lang.Object)
+	 */
+	@Override
+	public final boolean equals(final Object obj) {
+		final boolean result;
+
+		if (this == obj) {
+			result = true;
+		} else if (obj instanceof MultiValueObject2LongMap<?, ?>) {
+			final MultiValueObject2LongMap<?, ?> cast = (MultiValueObject2LongMap<?, ?>) obj;
+			result = decorated.equals(cast.decorated);
+		} else {
+			result = false;
+		}
+
+		return result;
+	}
+
+	@Override
+	public C get(final Object key) {
+		return decorated.get(key);
+	}
+
+	/**
+	 * @return An unmodifiable view of the decorated {@link Map} instance.
+	 */
+	public Map<K, C> getDecorated() {
+		return Collections.unmodifiableMap(decorated);
+	}
+
+	/**
+	 * Returns all value elements mapped to a key.
+	 *
+	 * @param key
+	 *            The key to get all the elements for.
+	 * @return A {@link LongCollection} of elements; if there is no mapping for
+	 *         the given key, then an empty {@code LongCollection} is returned.
+	 */
+	public C getValues(final K key) {
+		C result = decorated.get(key);
+		if (result == null) {
+			result = valueCollectionFactory.get();
+			decorated.put(key, result);
+		}
+		return result;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#hashCode()
+	 */
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + decorated.hashCode();
+		return result;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return decorated.isEmpty();
+	}
+
+	@Override
+	public Set<K> keySet() {
+		return decorated.keySet();
+	}
+
+	@Override
+	public C put(final K key, final C value) {
+		return decorated.put(key, value);
+	}
+
+	@Override
+	public void putAll(final Map<? extends K, ? extends C> m) {
+		for (final Entry<? extends K, ? extends C> entry : m.entrySet()) {
+			put(entry.getKey(), entry.getValue());
+		}
+	}
+
+	/**
+	 * Adds a value for a given key.
+	 *
+	 * @param key
+	 *            The key to add the new value to.
+	 * @param value
+	 *            The value to add.
+	 * @return {@code true} iff the value was successfully added.
+	 */
+	public boolean putValue(final K key, final long value) {
+		return getValues(key).add(value);
+	}
+
+	/**
+	 * Adds values for a given key.
+	 *
+	 * @param key
+	 *            The key to add the new values to.
+	 * @param values
+	 *            The values to add.
+	 * @return {@code true} if at least one value was successfully added.
+	 */
+	public boolean putValues(final K key, final LongCollection values) {
+		return getValues(key).addAll(values);
+	}
+
+	@Override
+	public C remove(final Object key) {
+		return decorated.remove(key);
+	}
+
+	/**
+	 * Removes a given value mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to remove the given mapped value for.
+	 * @param value
+	 *            The value to remove from the {@link LongCollection} of values
+	 *            mapped to the given key.
+	 * @return {@code true} iff the value was successfully removed.
+	 */
+	public boolean removeValue(final K key, final long value) {
+		final C values = decorated.get(key);
+		return values != null && values.rem(value);
+	}
+
+	/**
+	 * Removes given values mapped to a given key.
+	 *
+	 * @param key
+	 *            The key to remove the given mapped value for.
+	 * @param values
+	 *            The values to remove from the {@link LongCollection} of
+	 *            values mapped to the given key.
+	 * @return {@code true} if at least one value was successfully removed.
+	 */
+	public boolean removeValues(final K key, final LongCollection values) {
+		boolean result = false;
+		final C keyValues = decorated.get(key);
+		if (keyValues != null) {
+			for (final long value : values) {
+				if (keyValues.rem(value)) {
+					result = true;
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return decorated.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final String prefix = "MultiValueObject2LongMap [decorated=";
+		final String decoratedRepr = decorated.toString();
+		final StringBuilder builder = new StringBuilder(prefix.length() + decoratedRepr.length() + 1);
+		builder.append(prefix);
+		builder.append(decoratedRepr);
+		builder.append(']');
+		return builder.toString();
+	}
+
+	/**
+	 * Counts the keys a given value is mapped to by looking it up in the value
+	 * collection of each key.
+	 *
+	 * @param value
+	 *            The value to count.
+	 * @return The number of occurrences of the value in the value collections
+	 *         of all keys, which for sets of values is the number of keys
+	 *         mapped to it.
+	 */
+	public int valueFrequency(final long value) {
+		int result = 0;
+		for (final C values : decorated.values()) {
+			if (values instanceof LongSet) {
+				if (values.contains(value)) {
+					++result;
+				}
+			} else {
+				for (final LongIterator iter = values.iterator(); iter.hasNext();) {
+					if (iter.nextLong() == value) {
+						++result;
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public Collection<C> values() {
+		return decorated.values();
+	}
+
+}
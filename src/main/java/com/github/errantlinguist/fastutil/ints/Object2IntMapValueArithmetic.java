@@ -20,6 +20,8 @@ import java.util.Collection;
 import it.unimi.dsi.fastutil.ints.IntCollection;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectSet;
 
 /**
  * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
@@ -27,6 +29,28 @@ import it.unimi.dsi.fastutil.objects.Object2IntMap;
  */
 public final class Object2IntMapValueArithmetic {
 
+	/**
+	 * Adds the values of one map to the values of the same keys in another,
+	 * e.g.&nbsp;for merging the counts of one batch of elements into running
+	 * totals. Keys whose sum is {@code 0} are removed.
+	 *
+	 * @param map
+	 *            The {@link Object2IntOpenHashMap} to add to.
+	 * @param addends
+	 *            The {@link Object2IntMap} of amounts to add to the value of
+	 *            each key.
+	 */
+	public static final <K> void addValues(final Object2IntOpenHashMap<K> map,
+			final Object2IntMap<? extends K> addends) {
+		for (final Object2IntMap.Entry<? extends K> entry : fastEntries(addends)) {
+			final K key = entry.getKey();
+			final int addend = entry.getIntValue();
+			if (map.addTo(key, addend) + addend == 0) {
+				map.removeInt(key);
+			}
+		}
+	}
+
 	/**
 	 * Increments the values for a given key which occur within a given range.
 	 *
@@ -40,6 +64,7 @@ public final class Object2IntMapValueArithmetic {
 	 *            The inclusive minimum of the key values to increment.
 	 * @param toValue
 	 *            The exclusive maximum of the key values to increment.
+	 * @see #shiftValuesInRange(Object2IntMap, int, int, int)
 	 */
 	public static final <K> void incrementValues(final Object2IntMap<K> map,
 			final Collection<? extends K> keysToIncrement, final int increment, final int fromValue,
@@ -74,6 +99,34 @@ public final class Object2IntMapValueArithmetic {
 		}
 	}
 
+	/**
+	 * Adds a given amount to all values of a map which occur within a given
+	 * range in a single pass over its entries. For an
+	 * {@link Object2IntOpenHashMap}, the entries are visited through its
+	 * {@link Object2IntMap.FastEntrySet#fastIterator() fast iterator}, which
+	 * sets each value in place without hashing its key.
+	 *
+	 * @param map
+	 *            The {@link Object2IntMap} to shift the values of.
+	 * @param fromValue
+	 *            The inclusive minimum of the values to shift.
+	 * @param toValue
+	 *            The exclusive maximum of the values to shift.
+	 * @param delta
+	 *            The amount to add to the values.
+	 */
+	public static final <K> void shiftValuesInRange(final Object2IntMap<K> map, final int fromValue,
+			final int toValue, final int delta) {
+		if (delta != 0 && fromValue < toValue) {
+			for (final Object2IntMap.Entry<K> entry : fastEntries(map)) {
+				final int value = entry.getIntValue();
+				if (fromValue <= value && value < toValue) {
+					entry.setValue(value + delta);
+				}
+			}
+		}
+	}
+
 	/**
 	 * Increments the values for a given key which occur within a given range.
 	 *
@@ -109,6 +162,20 @@ public final class Object2IntMapValueArithmetic {
 		}
 	}
 
+	/**
+	 * @param map
+	 *            The {@link Object2IntMap} to iterate over.
+	 * @return An {@link Iterable} of the entries of the map which uses its
+	 *         {@link Object2IntMap.FastEntrySet#fastIterator() fast iterator}
+	 *         if it has one, in which case the same entry object may be
+	 *         returned for every entry.
+	 */
+	private static <K> Iterable<Object2IntMap.Entry<K>> fastEntries(final Object2IntMap<K> map) {
+		final ObjectSet<Object2IntMap.Entry<K>> entries = map.object2IntEntrySet();
+		return entries instanceof Object2IntMap.FastEntrySet ? ((Object2IntMap.FastEntrySet<K>) entries)::fastIterator
+				: entries;
+	}
+
 	private Object2IntMapValueArithmetic() {
 	}
 
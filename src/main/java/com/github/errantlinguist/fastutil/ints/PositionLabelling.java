@@ -0,0 +1,393 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.util.Arrays;
+
+/**
+ * An order-maintenance structure which assigns each position of a list an
+ * {@code int} label such that the labels are strictly increasing with the
+ * positions they label. Since the relative order of labels never changes, a
+ * label can be stored in place of a list index and converted back into the
+ * current index in logarithmic time, meaning that inserting or removing an
+ * element does not require shifting the stored labels of all subsequent
+ * elements.
+ * <p>
+ * The labels are slots in a power-of-two-sized label space; A Fenwick tree
+ * over slot occupancy is used for converting between labels and positions.
+ * Appending takes the slot after the last label; Inserting takes a free slot
+ * between the labels of the neighbouring positions, and, if there is none,
+ * evenly redistributes the labels in the smallest enclosing window of the
+ * label space whose density is below its threshold (as in a packed-memory
+ * array), so that the amortized number of labels changed per insertion is
+ * polylogarithmic.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+final class PositionLabelling {
+
+	/**
+	 * A callback for notifying the owner of the labelling of a label which was
+	 * changed.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	@FunctionalInterface
+	interface Relabeller {
+
+		/**
+		 * @param position
+		 *            The position of the relabelled element <em>before</em>
+		 *            the insertion which caused the relabelling.
+		 * @param oldLabel
+		 *            The label previously assigned to the position.
+		 * @param newLabel
+		 *            The label now assigned to the position.
+		 */
+		void relabel(int position, int oldLabel, int newLabel);
+	}
+
+	/**
+	 * The maximum size of the label space, above which the Fenwick tree of
+	 * label counts could no longer be indexed by an {@code int}.
+	 */
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private static final int MIN_CAPACITY = 16;
+
+	private static int capacityFor(final int size) {
+		final int minCapacity = Math.max(MIN_CAPACITY, size * 2);
+		final int result = Integer.highestOneBit(minCapacity);
+		return result < minCapacity ? result << 1 : result;
+	}
+
+	/**
+	 * The size of the label space, which is always a power of two.
+	 */
+	private int capacity;
+
+	/**
+	 * The Fenwick tree of occupied label counts, indexed from {@code 1}.
+	 */
+	private int[] counts;
+
+	/**
+	 * A bitset of the labels which are currently assigned.
+	 */
+	private long[] occupied;
+
+	private int size;
+
+	/**
+	 * Creates a labelling for {@code size} positions, assigning each position
+	 * its index as its initial label.
+	 *
+	 * @param size
+	 *            The number of positions to label.
+	 */
+	PositionLabelling(final int size) {
+		reset(capacityFor(size));
+		for (int label = 0; label < size; ++label) {
+			occupied[label >>> 6] |= 1L << label;
+		}
+		this.size = size;
+		rebuildCounts();
+	}
+
+	/**
+	 * Labels a new position after all existing positions. If the last label
+	 * is at the end of the label space but at most half of the space is in
+	 * use, the labels are first spread evenly over the lower half of the space
+	 * rather than growing it, so that a list which has as many elements
+	 * removed from its start as appended to its end does not grow its label
+	 * space without bound.
+	 *
+	 * @param relabeller
+	 *            The {@link Relabeller} to notify of any existing labels which
+	 *            were changed in order to make space for the new label.
+	 * @return The label for the new position.
+	 */
+	int append(final Relabeller relabeller) {
+		int result = size == 0 ? 0 : label(size - 1) + 1;
+		if (result == capacity) {
+			if ((size + 1) * 2L <= capacity) {
+				result = redistribute(0, capacity >>> 1, 0, size, size, relabeller);
+			} else {
+				resize(grownCapacity(size + 1));
+			}
+		}
+		occupy(result);
+		++size;
+		return result;
+	}
+
+	/**
+	 * Removes all positions.
+	 */
+	void clear() {
+		reset(MIN_CAPACITY);
+		size = 0;
+	}
+
+	/**
+	 * Labels a new position, shifting the positions of the existing labels at
+	 * or after the given position by one.
+	 *
+	 * @param position
+	 *            The position to insert.
+	 * @param relabeller
+	 *            The {@link Relabeller} to notify of any existing labels which
+	 *            were changed in order to make space for the new label.
+	 * @return The label for the new position.
+	 */
+	int insert(final int position, final Relabeller relabeller) {
+		final int result;
+		if (position == size) {
+			result = append(relabeller);
+		} else {
+			final int successor = label(position);
+			final int predecessor = position == 0 ? -1 : label(position - 1);
+			if (successor - predecessor > 1) {
+				result = (predecessor + successor) >>> 1;
+			} else {
+				result = redistribute(successor, position, relabeller);
+			}
+			occupy(result);
+			++size;
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the label currently assigned to a given position.
+	 *
+	 * @param position
+	 *            The position to look up.
+	 * @return The label assigned to the position.
+	 */
+	int label(final int position) {
+		assert 0 <= position && position < size;
+		// Find the greatest Fenwick index whose prefix count is at most
+		// "position", which is the (zero-based) slot of the label
+		int result = 0;
+		int remaining = position + 1;
+		for (int step = capacity; step > 0; step >>>= 1) {
+			final int next = result + step;
+			if (next <= capacity && counts[next] < remaining) {
+				result = next;
+				remaining -= counts[next];
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the position currently labelled by a given label.
+	 *
+	 * @param label
+	 *            The label to look up.
+	 * @return The number of labels less than the given label.
+	 */
+	int position(final int label) {
+		int result = 0;
+		for (int i = label; i > 0; i -= i & -i) {
+			result += counts[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Removes a position, shifting the positions of the labels after it by
+	 * minus one.
+	 *
+	 * @param position
+	 *            The position to remove.
+	 * @return The label which was assigned to the position.
+	 */
+	int remove(final int position) {
+		final int result = label(position);
+		vacate(result);
+		--size;
+		return result;
+	}
+
+	int size() {
+		return size;
+	}
+
+	private void addCount(final int label, final int delta) {
+		for (int i = label + 1; i <= capacity; i += i & -i) {
+			counts[i] += delta;
+		}
+	}
+
+	/**
+	 * @param minSize
+	 *            The number of labels the label space must have room for.
+	 * @return The smallest power-of-two capacity greater than the current one
+	 *         which is at least twice the given size.
+	 * @throws IllegalStateException
+	 *             If the label space cannot grow any further.
+	 */
+	private int grownCapacity(final int minSize) {
+		long result = (long) capacity << 1;
+		while (minSize * 2L > result) {
+			result <<= 1;
+		}
+		if (result > MAX_CAPACITY) {
+			throw new IllegalStateException(
+					String.format("Cannot label %d positions in a label space of at most %d labels.", minSize,
+							MAX_CAPACITY));
+		}
+		return (int) result;
+	}
+
+	private boolean isBelowDensityThreshold(final int windowCount, final int windowSize) {
+		// The density threshold decreases linearly from 1 for the smallest
+		// windows to 1/2 for the entire label space
+		final long heightRange = Integer.numberOfTrailingZeros(capacity) - 1;
+		final long height = Integer.numberOfTrailingZeros(windowSize) - 1;
+		return windowCount * 2L * heightRange <= windowSize * (2L * heightRange - height);
+	}
+
+	private void occupy(final int label) {
+		assert (occupied[label >>> 6] & 1L << label) == 0L;
+		occupied[label >>> 6] |= 1L << label;
+		addCount(label, 1);
+	}
+
+	private void rebuildCounts() {
+		Arrays.fill(counts, 0);
+		for (int i = 1; i <= capacity; ++i) {
+			final int label = i - 1;
+			if ((occupied[label >>> 6] & 1L << label) != 0L) {
+				++counts[i];
+			}
+			final int parent = i + (i & -i);
+			if (parent <= capacity) {
+				counts[parent] += counts[i];
+			}
+		}
+	}
+
+	/**
+	 * Evenly redistributes the labels in the smallest window around a given
+	 * label which has room for one more label, leaving a free label for a new
+	 * position.
+	 *
+	 * @param successor
+	 *            The label of the existing position which the new position is
+	 *            to be inserted before.
+	 * @param position
+	 *            The position to insert.
+	 * @param relabeller
+	 *            The {@link Relabeller} to notify of changed labels.
+	 * @return The label left free for the new position.
+	 */
+	private int redistribute(final int successor, final int position, final Relabeller relabeller) {
+		for (int windowSize = 2; windowSize <= capacity; windowSize <<= 1) {
+			final int windowStart = successor & -windowSize;
+			final int windowEnd = windowStart + windowSize;
+			final int firstPosition = position(windowStart);
+			final int windowCount = position(windowEnd) - firstPosition;
+			if (isBelowDensityThreshold(windowCount + 1, windowSize)) {
+				return redistribute(windowStart, windowSize, firstPosition, windowCount, position, relabeller);
+			}
+		}
+		// The entire label space is too dense; Grow it and spread the labels
+		// over all of it
+		resize(grownCapacity(size + 1));
+		return redistribute(0, capacity, 0, size, position, relabeller);
+	}
+
+	private int redistribute(final int windowStart, final int windowSize, final int firstPosition,
+			final int windowCount, final int position, final Relabeller relabeller) {
+		final int[] oldLabels = new int[windowCount];
+		final int[] newLabels = new int[windowCount];
+		final int newLabelCount = windowCount + 1;
+		final int insertedOffset = position - firstPosition;
+		int result = -1;
+		{
+			int oldLabel = windowStart - 1;
+			for (int i = 0; i < newLabelCount; ++i) {
+				final int newLabel = windowStart + (int) ((long) i * windowSize / newLabelCount);
+				if (i == insertedOffset) {
+					result = newLabel;
+				} else {
+					final int offset = i < insertedOffset ? i : i - 1;
+					oldLabel = nextOccupied(oldLabel + 1);
+					oldLabels[offset] = oldLabel;
+					newLabels[offset] = newLabel;
+				}
+			}
+		}
+		assert result >= 0;
+
+		// Notify of labels which decrease in ascending order and of labels
+		// which increase in descending order so that a new label is never
+		// equal to a label which is still assigned
+		for (int offset = 0; offset < windowCount; ++offset) {
+			if (newLabels[offset] < oldLabels[offset]) {
+				relabeller.relabel(firstPosition + offset, oldLabels[offset], newLabels[offset]);
+			}
+		}
+		for (int offset = windowCount - 1; offset >= 0; --offset) {
+			if (newLabels[offset] > oldLabels[offset]) {
+				relabeller.relabel(firstPosition + offset, oldLabels[offset], newLabels[offset]);
+			}
+		}
+
+		for (int offset = 0; offset < windowCount; ++offset) {
+			vacate(oldLabels[offset]);
+		}
+		for (int offset = 0; offset < windowCount; ++offset) {
+			occupy(newLabels[offset]);
+		}
+		return result;
+	}
+
+	private int nextOccupied(final int label) {
+		int wordIdx = label >>> 6;
+		long word = occupied[wordIdx] & -1L << label;
+		while (word == 0L) {
+			word = occupied[++wordIdx];
+		}
+		return (wordIdx << 6) + Long.numberOfTrailingZeros(word);
+	}
+
+	private void reset(final int capacity) {
+		this.capacity = capacity;
+		counts = new int[capacity + 1];
+		occupied = new long[(capacity + 63) >>> 6];
+	}
+
+	private void resize(final int newCapacity) {
+		capacity = newCapacity;
+		counts = new int[newCapacity + 1];
+		occupied = Arrays.copyOf(occupied, (newCapacity + 63) >>> 6);
+		rebuildCounts();
+	}
+
+	private void vacate(final int label) {
+		assert (occupied[label >>> 6] & 1L << label) != 0L;
+		occupied[label >>> 6] &= ~(1L << label);
+		addCount(label, -1);
+	}
+
+}
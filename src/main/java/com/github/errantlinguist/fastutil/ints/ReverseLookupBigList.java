@@ -0,0 +1,295 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.longs.LongSortedSet;
+import it.unimi.dsi.fastutil.longs.LongSortedSets;
+import it.unimi.dsi.fastutil.objects.AbstractObjectBigList;
+import it.unimi.dsi.fastutil.objects.ObjectBigList;
+import it.unimi.dsi.fastutil.objects.ObjectBigListIterator;
+import it.unimi.dsi.fastutil.objects.ObjectBigLists;
+
+/**
+ * An {@link ObjectBigList} implementation which decorates another
+ * {@code ObjectBigList} instance, maintaining a
+ * {@link MultiValueObject2LongMap} which has the list elements {@code E} as
+ * keys which are mapped to {@link LongSortedSet} objects containing the
+ * {@code long} indices at which each element occurs in the decorated
+ * {@code ObjectBigList}. This is the counterpart of {@link ReverseLookupList}
+ * for lists with more than {@link Integer#MAX_VALUE} elements.
+ * <p>
+ * By default, the indices are stored in {@link SplitLongSortedSet} instances,
+ * so that each index takes little more space than it would in an
+ * {@code int}-indexed list. Unlike in {@code ReverseLookupList}, the indices
+ * are stored directly rather than as labels, so inserting or removing
+ * elements anywhere but at the end of the list requires updating the indices
+ * of all the elements following them. Big lists are therefore best built by
+ * appending.
+ * </p>
+ *
+ * @param <E>
+ *            The type of the elements of the decorated {@code ObjectBigList}.
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class ReverseLookupBigList<E> extends AbstractObjectBigList<E> implements Serializable {
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 7410573262916823004L;
+
+	/**
+	 * The decorated {@link ObjectBigList} instance.
+	 */
+	private final ObjectBigList<E> decorated;
+
+	private final Supplier<? extends LongSortedSet> indexCollectionFactory;
+
+	/**
+	 * The reverse-lookup map for the elements of {@link #decorated the
+	 * decorated <code>ObjectBigList</code>}, which maps each element to the
+	 * indices at which it occurs.
+	 */
+	private transient MultiValueObject2LongMap<E, LongSortedSet> reverseLookupMap;
+
+	/**
+	 * @param decorated
+	 *            The {@link ObjectBigList} to decorate.
+	 */
+	public ReverseLookupBigList(final ObjectBigList<E> decorated) {
+		this(decorated, SplitLongSortedSet.SERIALIZABLE_FACTORY);
+	}
+
+	/**
+	 * @param decorated
+	 *            The {@link ObjectBigList} to decorate.
+	 * @param indexCollectionFactory
+	 *            The {@link Supplier} to use for creating the sets of indices
+	 *            of each element, which must itself be serializable for the
+	 *            list to be serializable.
+	 */
+	public ReverseLookupBigList(final ObjectBigList<E> decorated,
+			final Supplier<? extends LongSortedSet> indexCollectionFactory) {
+		this.decorated = decorated;
+		this.indexCollectionFactory = indexCollectionFactory;
+
+		createNewReverseLookupMap();
+	}
+
+	@Override
+	public void add(final long index, final E element) {
+		decorated.add(index, element);
+		shiftIndices(index, decorated.size64() - 1, 1);
+		final boolean wasIndexPut = reverseLookupMap.putValue(element, index);
+		assert wasIndexPut;
+	}
+
+	@Override
+	public boolean addAll(final long index, final Collection<? extends E> c) {
+		final long oldSize = decorated.size64();
+		final boolean result = decorated.addAll(index, c);
+		if (result) {
+			// Use the difference of the new size from the old size because it
+			// is possible that not every single element from "c" was
+			// successfully added
+			final long addedElementCount = decorated.size64() - oldSize;
+			// Shift the indices of the following elements once for all added
+			// elements rather than once for each of them
+			shiftIndices(index, oldSize, addedElementCount);
+			for (long i = index; i < index + addedElementCount; ++i) {
+				final boolean wasIndexPut = reverseLookupMap.putValue(decorated.get(i), i);
+				assert wasIndexPut;
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		decorated.clear();
+		reverseLookupMap.clear();
+	}
+
+	@Override
+	public boolean contains(final Object o) {
+		return reverseLookupMap.containsKey(o);
+	}
+
+	@Override
+	public E get(final long index) {
+		return decorated.get(index);
+	}
+
+	/**
+	 * @return An unmodifiable view of the decorated {@link ObjectBigList}.
+	 */
+	public ObjectBigList<E> getDecorated() {
+		return ObjectBigLists.unmodifiable(decorated);
+	}
+
+	/**
+	 * @return An unmodifiable view of the reverse-lookup index map for the
+	 *         elements of {@link #getDecorated() the decorated
+	 *         <code>ObjectBigList</code>}.
+	 */
+	public Map<E, LongSortedSet> getReverseLookupMap() {
+		final Map<E, LongSortedSet> result = new HashMap<>(reverseLookupMap.size() + 1);
+		for (final Map.Entry<E, LongSortedSet> entry : reverseLookupMap.entrySet()) {
+			result.put(entry.getKey(), LongSortedSets.unmodifiable(entry.getValue()));
+		}
+		return Collections.unmodifiableMap(result);
+	}
+
+	@Override
+	public long indexOf(final Object o) {
+		final LongSortedSet indices = reverseLookupMap.get(o);
+		return indices == null || indices.isEmpty() ? -1 : indices.firstLong();
+	}
+
+	@Override
+	public long lastIndexOf(final Object o) {
+		final LongSortedSet indices = reverseLookupMap.get(o);
+		return indices == null || indices.isEmpty() ? -1 : indices.lastLong();
+	}
+
+	@Override
+	public E remove(final long index) {
+		final E result = decorated.remove(index);
+		removeIndex(result, index);
+		shiftIndices(index + 1, decorated.size64() + 1, -1);
+		return result;
+	}
+
+	@Override
+	public void removeElements(final long from, final long to) {
+		ensureIndex(from);
+		ensureIndex(to);
+		if (from > to) {
+			throw new IllegalArgumentException(
+					String.format("Start index (%d) is greater than end index (%d).", from, to));
+		}
+		final long oldSize = decorated.size64();
+		for (long i = from; i < to; ++i) {
+			removeIndex(decorated.get(i), i);
+		}
+		decorated.removeElements(from, to);
+		shiftIndices(to, oldSize, from - to);
+	}
+
+	@Override
+	public E set(final long index, final E element) {
+		final E result = decorated.set(index, element);
+		removeIndex(result, index);
+		final boolean wasIndexPut = reverseLookupMap.putValue(element, index);
+		assert wasIndexPut;
+		return result;
+	}
+
+	@Override
+	public long size64() {
+		return decorated.size64();
+	}
+
+	private void createNewReverseLookupMap() {
+		reverseLookupMap = new MultiValueObject2LongMap<>(new HashMap<>(), indexCollectionFactory);
+		long index = 0;
+		for (final ObjectBigListIterator<E> iter = decorated.iterator(); iter.hasNext();) {
+			reverseLookupMap.putValue(iter.next(), index++);
+		}
+	}
+
+	/**
+	 * Changes an index of an element in the reverse-lookup map.
+	 *
+	 * @param element
+	 *            The element which was moved.
+	 * @param oldIndex
+	 *            The index the element was at.
+	 * @param newIndex
+	 *            The index the element is now at.
+	 */
+	private void moveIndex(final E element, final long oldIndex, final long newIndex) {
+		final boolean wasOldIndexRemoved = reverseLookupMap.removeValue(element, oldIndex);
+		assert wasOldIndexRemoved;
+		final boolean wasNewIndexPut = reverseLookupMap.putValue(element, newIndex);
+		assert wasNewIndexPut;
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		createNewReverseLookupMap();
+	}
+
+	/**
+	 * Removes an index from the reverse-lookup map, removing the element from
+	 * the map entirely if it was its last index.
+	 *
+	 * @param element
+	 *            The element to remove the index for.
+	 * @param index
+	 *            The index to remove.
+	 */
+	private void removeIndex(final E element, final long index) {
+		final boolean wasRemoved = reverseLookupMap.removeValue(element, index);
+		assert wasRemoved;
+		if (reverseLookupMap.get(element).isEmpty()) {
+			reverseLookupMap.remove(element);
+		}
+	}
+
+	/**
+	 * Adds a given amount to the indices of the elements which were in a
+	 * given range of indices before being moved in the decorated list.
+	 *
+	 * @param from
+	 *            The inclusive minimum of the old indices to shift.
+	 * @param to
+	 *            The exclusive maximum of the old indices to shift.
+	 * @param delta
+	 *            The amount by which the elements were moved.
+	 */
+	private void shiftIndices(final long from, final long to, final long delta) {
+		if (to - from < reverseLookupMap.size()) {
+			// Moving each index of the shifted elements is cheaper than
+			// visiting the index set of every distinct element
+			if (delta > 0) {
+				// Move the indices in descending order so that no index is
+				// moved to one which has not yet been moved itself
+				for (long i = to - 1; i >= from; --i) {
+					moveIndex(decorated.get(i + delta), i, i + delta);
+				}
+			} else {
+				for (long i = from; i < to; ++i) {
+					moveIndex(decorated.get(i + delta), i, i + delta);
+				}
+			}
+		} else {
+			MultiValueObject2LongMap.shiftValues(reverseLookupMap, from, to, delta);
+		}
+	}
+
+}
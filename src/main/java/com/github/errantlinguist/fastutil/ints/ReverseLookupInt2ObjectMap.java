@@ -15,44 +15,122 @@
  */
 package com.github.errantlinguist.fastutil.ints;
 
-import java.util.Collections;
-import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 
-import com.github.errantlinguist.collections.ListIndices;
-
+import it.unimi.dsi.fastutil.ints.AbstractInt2ObjectMap.BasicEntry;
+import it.unimi.dsi.fastutil.ints.Int2ObjectArrayMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.IntSet;
+import it.unimi.dsi.fastutil.ints.IntSets;
+import it.unimi.dsi.fastutil.objects.AbstractObjectIterator;
+import it.unimi.dsi.fastutil.objects.AbstractObjectSet;
+import it.unimi.dsi.fastutil.objects.Object2IntMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectCollection;
+import it.unimi.dsi.fastutil.objects.ObjectCollections;
+import it.unimi.dsi.fastutil.objects.ObjectIterable;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
 import it.unimi.dsi.fastutil.objects.ObjectSet;
 
 /**
+ * A bidirectional {@link Int2ObjectMap} which decorates another
+ * {@code Int2ObjectMap}, maintaining an inverse {@link Object2IntMap} from each
+ * value to its key so that both {@link #get(int)} and {@link #getKey(Object)}
+ * take constant time. Each value can therefore be mapped to by only one key.
+ * <p>
+ * The entry, key and value views are unmodifiable so that the map can only be
+ * changed through methods which also update the inverse map.
+ * </p>
+ *
  * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
  * @since May 2, 2016
  */
 public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 
+	/**
+	 * An unmodifiable view of the entries of the map, whose entries are
+	 * copies so that they cannot be changed using
+	 * {@link java.util.Map.Entry#setValue(Object)} either.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class EntrySet extends AbstractObjectSet<Int2ObjectMap.Entry<V>> {
+
+		@Override
+		public boolean contains(final Object o) {
+			return decorated.int2ObjectEntrySet().contains(o);
+		}
+
+		@Override
+		public ObjectIterator<Int2ObjectMap.Entry<V>> iterator() {
+			final ObjectIterator<Int2ObjectMap.Entry<V>> entries = decorated.int2ObjectEntrySet().iterator();
+			return new AbstractObjectIterator<Int2ObjectMap.Entry<V>>() {
+
+				@Override
+				public boolean hasNext() {
+					return entries.hasNext();
+				}
+
+				@Override
+				public Int2ObjectMap.Entry<V> next() {
+					final Int2ObjectMap.Entry<V> entry = entries.next();
+					return new BasicEntry<>(entry.getIntKey(), entry.getValue());
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			return decorated.size();
+		}
+	}
+
 	private final Int2ObjectMap<V> decorated;
-	private final List<V> indexedValues;
 
 	/**
-	 *
+	 * The values of {@link #decorated the decorated map} indexed by key, which
+	 * are stored either densely or sparsely depending on the key range.
+	 */
+	private final AdaptiveInt2ObjectMap<V> indexedValues;
+
+	/**
+	 * The key of each value, returning {@link #defaultReturnKey()} for absent
+	 * values.
+	 */
+	private final Object2IntOpenHashMap<V> valueKeys;
+
+	/**
+	 * @param decorated
+	 *            The {@link Int2ObjectMap} to decorate.
+	 * @throws IllegalArgumentException
+	 *             If the decorated map contains non-unique values.
 	 */
 	public ReverseLookupInt2ObjectMap(final Int2ObjectMap<V> decorated) {
 		this.decorated = decorated;
-		this.indexedValues = ListIntIndices.createListFromIndexMapping(decorated.int2ObjectEntrySet());
+		this.indexedValues = new AdaptiveInt2ObjectMap<>(decorated);
+		indexedValues.defaultReturnValue(decorated.defaultReturnValue());
+		valueKeys = new Object2IntOpenHashMap<>(decorated.size());
+		valueKeys.defaultReturnValue(-1);
+		for (final Int2ObjectMap.Entry<V> entry : decorated.int2ObjectEntrySet()) {
+			if (valueKeys.containsKey(entry.getValue())) {
+				throw new IllegalArgumentException("Decorated map contains non-unique values.");
+			}
+			valueKeys.put(entry.getValue(), entry.getIntKey());
+		}
 	}
 
 	@Override
 	public void clear() {
 		decorated.clear();
 		indexedValues.clear();
+		valueKeys.clear();
 	}
 
 	@Override
 	public boolean containsKey(final int key) {
-		return decorated.containsKey(key);
+		return indexedValues.containsKey(key);
 	}
 
 	@Override
@@ -62,7 +140,27 @@ public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 
 	@Override
 	public boolean containsValue(final Object value) {
-		return decorated.containsValue(value);
+		return valueKeys.containsKey(value);
+	}
+
+	/**
+	 * @return The key returned by {@link #getKey(Object)} for values which no
+	 *         key is mapped to, which is {@code -1} by default.
+	 */
+	public int defaultReturnKey() {
+		return valueKeys.defaultReturnValue();
+	}
+
+	/**
+	 * Sets the key returned by {@link #getKey(Object)} for values which no key
+	 * is mapped to; This should be a key which is never put into the map so
+	 * that it is distinguishable from a mapped key.
+	 *
+	 * @param rk
+	 *            The new default return key.
+	 */
+	public void defaultReturnKey(final int rk) {
+		valueKeys.defaultReturnValue(rk);
 	}
 
 	@Override
@@ -73,16 +171,19 @@ public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 	@Override
 	public void defaultReturnValue(final V rv) {
 		decorated.defaultReturnValue(rv);
+		indexedValues.defaultReturnValue(rv);
 	}
 
 	@Override
+	@SuppressWarnings("unchecked")
 	public ObjectSet<java.util.Map.Entry<Integer, V>> entrySet() {
-		return decorated.entrySet();
+		// Each Int2ObjectMap.Entry is also a Map.Entry<Integer, V>
+		return (ObjectSet<java.util.Map.Entry<Integer, V>>) (ObjectSet<?>) int2ObjectEntrySet();
 	}
 
 	@Override
 	public V get(final int key) {
-		return decorated.get(key);
+		return indexedValues.get(key);
 	}
 
 	@Override
@@ -90,9 +191,24 @@ public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 		return decorated.get(key);
 	}
 
+	/**
+	 * Gets the key which a given value is mapped to.
+	 *
+	 * @param value
+	 *            The value to get the key of.
+	 * @return The key of the value or {@link #defaultReturnKey() the default
+	 *         return key} if no key is mapped to it; Since the default of
+	 *         {@code -1} may itself be a key, use
+	 *         {@link #containsValue(Object)} to distinguish the two cases if it
+	 *         has not been set to a key which is never put into the map.
+	 */
+	public int getKey(final Object value) {
+		return valueKeys.getInt(value);
+	}
+
 	@Override
 	public ObjectSet<it.unimi.dsi.fastutil.ints.Int2ObjectMap.Entry<V>> int2ObjectEntrySet() {
-		return decorated.int2ObjectEntrySet();
+		return new EntrySet();
 	}
 
 	@Override
@@ -102,16 +218,24 @@ public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 
 	@Override
 	public IntSet keySet() {
-		return decorated.keySet();
+		return IntSets.unmodifiable(decorated.keySet());
 	}
 
+	/**
+	 * @throws IllegalArgumentException
+	 *             If the value is already mapped to by another key.
+	 */
 	@Override
 	public V put(final int key, final V value) {
+		checkUnmapped(key, value);
+		final boolean hadKey = indexedValues.containsKey(key);
 		final V putValue = decorated.put(key, value);
-
-		ListIndices.ensureIndex(indexedValues, key);
-		final V result = indexedValues.set(key, value);
+		final V result = indexedValues.put(key, value);
 		assert Objects.equals(putValue, result);
+		if (hadKey) {
+			valueKeys.removeInt(result);
+		}
+		valueKeys.put(value, key);
 		return result;
 	}
 
@@ -121,27 +245,114 @@ public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 		return put(key.intValue(), value);
 	}
 
+	/**
+	 * Puts the entries of parallel arrays of keys and values into the map
+	 * without boxing the keys, sizing the key-indexed value storage only once.
+	 *
+	 * @param keys
+	 *            The keys to put.
+	 * @param values
+	 *            The value for each key.
+	 * @throws IllegalArgumentException
+	 *             If the arrays are of different lengths, if a value occurs
+	 *             for more than one key in the arrays or if a value is already
+	 *             mapped to by a key other than the one given for it.
+	 */
+	public void putAll(final int[] keys, final V[] values) {
+		if (keys.length != values.length) {
+			throw new IllegalArgumentException(
+					String.format("Key array length (%d) does not equal value array length (%d).", keys.length,
+							values.length));
+		}
+		// Check all values before changing any of the maps other than the
+		// value key map, in which each new value is provisionally mapped to
+		// its key so that a value put for two different keys is found
+		for (int i = 0; i < keys.length; ++i) {
+			final int key = keys[i];
+			final V value = values[i];
+			if (valueKeys.containsKey(value) && valueKeys.getInt(value) != key) {
+				final int otherKey = valueKeys.getInt(value);
+				for (int j = 0; j < i; ++j) {
+					if (!isMapped(keys[j], values[j])) {
+						valueKeys.removeInt(values[j]);
+					}
+				}
+				throw new IllegalArgumentException(isMapped(otherKey, value)
+						? String.format("Value is already mapped to by key %d.", otherKey) : "Values are not unique.");
+			}
+			valueKeys.put(value, key);
+		}
+
+		// Unmap the values being replaced, including any which are put again
+		// for the same key and are then mapped again below
+		for (final int key : keys) {
+			if (indexedValues.containsKey(key)) {
+				valueKeys.removeInt(indexedValues.get(key));
+			}
+		}
+		indexedValues.putAll(keys, values);
+		// An array map iterates over all of the given entries in order
+		// regardless of duplicate keys, and putting it as a whole lets the
+		// decorated map size itself only once
+		decorated.putAll(new Int2ObjectArrayMap<>(keys, values));
+		// Only map the last value put for each key
+		for (int i = 0; i < keys.length; ++i) {
+			if (Objects.equals(indexedValues.get(keys[i]), values[i])) {
+				valueKeys.put(values[i], keys[i]);
+			} else {
+				valueKeys.removeInt(values[i]);
+			}
+		}
+	}
+
+	/**
+	 * Puts the entries of a given map into this map, sizing the key-indexed
+	 * value storage only once.
+	 *
+	 * @throws IllegalArgumentException
+	 *             If a value occurs for more than one key in the given map or
+	 *             if a value is already mapped to by a key other than the one
+	 *             given for it.
+	 */
 	@Override
 	public void putAll(final Map<? extends Integer, ? extends V> m) {
 		assert m != null;
 
-		decorated.putAll(m);
-
-		// Find the maximum index in order to pre-set the list length
-		final int maxIndex = Collections.max(m.keySet());
-		ListIndices.ensureIndex(indexedValues, maxIndex);
-
-		ListIndices.setIndexedElements(indexedValues, m);
-
-		throw new RuntimeException(new UnsupportedOperationException("Not yet implemented"));
-		// TODO Auto-generated method stub
+		final int[] putKeys = new int[m.size()];
+		@SuppressWarnings("unchecked")
+		final V[] putValues = (V[]) new Object[putKeys.length];
+		int i = 0;
+		if (m instanceof Int2ObjectMap<?>) {
+			// The entries are only read, so they can be treated as having the
+			// value type of this map
+			@SuppressWarnings("unchecked")
+			final Int2ObjectMap<V> cast = (Int2ObjectMap<V>) m;
+			final ObjectSet<Int2ObjectMap.Entry<V>> entries = cast.int2ObjectEntrySet();
+			// Fast entry sets reuse a single entry object during iteration
+			final ObjectIterable<Int2ObjectMap.Entry<V>> iterable = entries instanceof Int2ObjectMap.FastEntrySet<?>
+					? ((Int2ObjectMap.FastEntrySet<V>) entries)::fastIterator : entries;
+			for (final Int2ObjectMap.Entry<V> entry : iterable) {
+				putKeys[i] = entry.getIntKey();
+				putValues[i++] = entry.getValue();
+			}
+		} else {
+			for (final Map.Entry<? extends Integer, ? extends V> entry : m.entrySet()) {
+				putKeys[i] = entry.getKey();
+				putValues[i++] = entry.getValue();
+			}
+		}
+		putAll(putKeys, putValues);
 	}
 
 	@Override
 	public V remove(final int key) {
+		final boolean hadKey = indexedValues.containsKey(key);
 		final V removedValue = decorated.remove(key);
 		final V result = indexedValues.remove(key);
 		assert Objects.equals(removedValue, result);
+		if (hadKey) {
+			valueKeys.removeInt(result);
+		}
 		return result;
 	}
 
@@ -165,7 +376,25 @@ public final class ReverseLookupInt2ObjectMap<V> implements Int2ObjectMap<V> {
 
 	@Override
 	public ObjectCollection<V> values() {
-		return decorated.values();
+		return ObjectCollections.unmodifiable(decorated.values());
+	}
+
+	private void checkUnmapped(final int key, final V value) {
+		if (valueKeys.containsKey(value) && valueKeys.getInt(value) != key) {
+			throw new IllegalArgumentException(
+					String.format("Value is already mapped to by key %d.", valueKeys.getInt(value)));
+		}
+	}
+
+	/**
+	 * @param key
+	 *            A key.
+	 * @param value
+	 *            A value.
+	 * @return {@code true} iff the key is in the map and mapped to the value.
+	 */
+	private boolean isMapped(final int key, final V value) {
+		return indexedValues.containsKey(key) && Objects.equals(indexedValues.get(key), value);
 	}
 
 }
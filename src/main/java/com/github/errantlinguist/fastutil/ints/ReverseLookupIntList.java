@@ -0,0 +1,448 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.ints.AbstractIntList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMaps;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntCollection;
+import it.unimi.dsi.fastutil.ints.IntIterator;
+import it.unimi.dsi.fastutil.ints.IntList;
+import it.unimi.dsi.fastutil.ints.IntLists;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSets;
+
+/**
+ * An {@link IntList} implementation which decorates another {@code IntList}
+ * instance, e.g.&nbsp;an {@link IntArrayList}, maintaining an
+ * {@link Int2ObjectOpenHashMap} which has the list elements as keys which are
+ * mapped to {@link IntSortedSet} objects containing the indices at which each
+ * element occurs in the decorated {@code IntList}. This is the primitive
+ * counterpart of {@link ReverseLookupList}, which does not box elements for
+ * any lookup or positional edit.
+ * <p>
+ * As in {@code ReverseLookupList}, the reverse-lookup map stores
+ * {@link PositionLabelling labels} rather than the indices themselves, so
+ * that inserting or removing an element does not require updating the entries
+ * of all the elements following it.
+ * </p>
+ * <p>
+ * When serialized, the reverse-lookup map is written as blocks of
+ * {@code int} indices following the decorated {@code IntList} so that it can
+ * be read back without re-indexing the entire list.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class ReverseLookupIntList extends AbstractIntList implements Serializable {
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 3374592146052866211L;
+
+	/**
+	 * The decorated {@link IntList} instance.
+	 */
+	private final IntList decorated;
+
+	private final Supplier<? extends IntSortedSet> indexCollectionFactory;
+
+	/**
+	 * The {@link PositionLabelling} of the indices of {@link #decorated the
+	 * decorated <code>IntList</code>}.
+	 */
+	private transient PositionLabelling positionLabels;
+
+	/**
+	 * The reverse-lookup map for the elements of {@link #decorated the
+	 * decorated <code>IntList</code>}, which maps each element to the
+	 * {@link #positionLabels labels} of the indices at which it occurs.
+	 */
+	private transient Int2ObjectOpenHashMap<IntSortedSet> reverseLookupMap;
+
+	/**
+	 * @param decorated
+	 *            The {@link IntList} to decorate.
+	 */
+	public ReverseLookupIntList(final IntList decorated) {
+		this(decorated, AdaptiveIntSortedSet.SERIALIZABLE_FACTORY);
+	}
+
+	/**
+	 * @param decorated
+	 *            The {@link IntList} to decorate.
+	 * @param indexCollectionFactory
+	 *            The {@link Supplier} to use for creating new index
+	 *            collections for the list elements.
+	 */
+	public ReverseLookupIntList(final IntList decorated,
+			final Supplier<? extends IntSortedSet> indexCollectionFactory) {
+		this.decorated = decorated;
+		this.indexCollectionFactory = indexCollectionFactory;
+
+		createNewReverseLookupMap();
+	}
+
+	@Override
+	public boolean add(final int element) {
+		final boolean result = decorated.add(element);
+		if (result) {
+			putLabel(decorated.size() - 1, 1);
+		}
+
+		return result;
+	}
+
+	@Override
+	public void add(final int index, final int element) {
+		decorated.add(index, element);
+		// The labels of the elements after "index" do not need to be updated
+		// because they are still ordered correctly
+		putLabel(index, 1);
+	}
+
+	@Override
+	public boolean addAll(final int index, final IntCollection c) {
+		final int oldSize = decorated.size();
+		final boolean result = decorated.addAll(index, c);
+		if (result) {
+			// Use the difference of the new size from the old size because it
+			// is possible that not every single element from "c" was
+			// successfully added
+			final int addedElementCount = decorated.size() - oldSize;
+			for (int i = 0; i < addedElementCount; ++i) {
+				putLabel(index + i, addedElementCount - i);
+			}
+		}
+
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		decorated.clear();
+		positionLabels.clear();
+		reverseLookupMap.clear();
+	}
+
+	@Override
+	public boolean contains(final int element) {
+		return reverseLookupMap.containsKey(element);
+	}
+
+	/**
+	 * @return An unmodifiable view of the decorated {@link IntList}.
+	 */
+	public IntList getDecorated() {
+		return IntLists.unmodifiable(decorated);
+	}
+
+	@Override
+	public int getInt(final int index) {
+		return decorated.getInt(index);
+	}
+
+	/**
+	 * @return An unmodifiable copy of the reverse-lookup index map for the
+	 *         elements of {@link #getDecorated() the decorated
+	 *         <code>IntList</code>}.
+	 */
+	public Int2ObjectMap<IntSortedSet> getReverseLookupMap() {
+		final Int2ObjectMap<IntSortedSet> result = new Int2ObjectOpenHashMap<>(reverseLookupMap.size());
+		for (final Int2ObjectMap.Entry<IntSortedSet> entry : reverseLookupMap.int2ObjectEntrySet()) {
+			final IntSortedSet indices = new AdaptiveIntSortedSet();
+			for (final IntIterator labelIter = entry.getValue().iterator(); labelIter.hasNext();) {
+				indices.add(positionLabels.position(labelIter.nextInt()));
+			}
+			result.put(entry.getIntKey(), IntSortedSets.unmodifiable(indices));
+		}
+		return Int2ObjectMaps.unmodifiable(result);
+	}
+
+	@Override
+	public int indexOf(final int element) {
+		final IntSortedSet labels = reverseLookupMap.get(element);
+		return labels == null ? -1 : positionLabels.position(labels.firstInt());
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return decorated.isEmpty();
+	}
+
+	@Override
+	public int lastIndexOf(final int element) {
+		final IntSortedSet labels = reverseLookupMap.get(element);
+		return labels == null ? -1 : positionLabels.position(labels.lastInt());
+	}
+
+	@Override
+	public boolean removeAll(final Collection<?> c) {
+		return batchRemove(element -> c.contains(element), false);
+	}
+
+	@Override
+	public boolean removeAll(final IntCollection c) {
+		return batchRemove(c::contains, false);
+	}
+
+	@Override
+	public int removeInt(final int index) {
+		final int result = decorated.removeInt(index);
+		// The labels of the elements after "index" do not need to be updated
+		// because they are still ordered correctly
+		removeLabel(result, positionLabels.remove(index));
+
+		return result;
+	}
+
+	@Override
+	public boolean retainAll(final Collection<?> c) {
+		return batchRemove(element -> c.contains(element), true);
+	}
+
+	@Override
+	public boolean retainAll(final IntCollection c) {
+		return batchRemove(c::contains, true);
+	}
+
+	@Override
+	public int set(final int index, final int element) {
+		final int result = decorated.set(index, element);
+
+		final int label = positionLabels.label(index);
+		// Remove the old key-label pair from the reverse-lookup map
+		removeLabel(result, label);
+		// Put the new key-label pair into the reverse-lookup map
+		final boolean wasNewKeyPut = getLabels(element).add(label);
+		assert wasNewKeyPut;
+
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return decorated.size();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 *
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		final String decoratedFieldPrefix = "ReverseLookupIntList [decorated=";
+		final String decoratedStr = Objects.toString(decorated);
+		final String suffix = "]";
+		final StringBuilder builder = new StringBuilder(
+				decoratedFieldPrefix.length() + decoratedStr.length() + suffix.length());
+		builder.append(decoratedFieldPrefix);
+		builder.append(decoratedStr);
+		builder.append(suffix);
+		return builder.toString();
+	}
+
+	/**
+	 * Removes the elements which either are or are not in a given collection
+	 * in a single pass, removing only the labels of the removed elements from
+	 * the reverse-lookup map.
+	 *
+	 * @param isInCollection
+	 *            An {@link IntPredicate} checking if an element is in the
+	 *            collection.
+	 * @param complement
+	 *            If {@code true}, the elements not in the collection are
+	 *            removed; Otherwise, the elements in the collection are
+	 *            removed.
+	 * @return {@code true} iff at least one element was removed.
+	 */
+	private boolean batchRemove(final IntPredicate isInCollection, final boolean complement) {
+		final int oldSize = decorated.size();
+		int retainedCount = 0;
+		for (int index = 0; index < oldSize; ++index) {
+			final int element = decorated.getInt(index);
+			if (isInCollection.test(element) == complement) {
+				decorated.set(retainedCount++, element);
+			} else {
+				// The labels of the remaining elements stay ordered correctly
+				// and so are not updated
+				removeLabel(element, positionLabels.remove(retainedCount));
+			}
+		}
+		decorated.removeElements(retainedCount, oldSize);
+
+		return retainedCount < oldSize;
+	}
+
+	private void createNewReverseLookupMap() {
+		final int size = decorated.size();
+		// The initial label of each element is its index
+		positionLabels = new PositionLabelling(size);
+		reverseLookupMap = new Int2ObjectOpenHashMap<>(size);
+		for (int index = 0; index < size; ++index) {
+			getLabels(decorated.getInt(index)).add(index);
+		}
+	}
+
+	/**
+	 * Returns the labels for a given element, creating a new label collection
+	 * if the element is not yet in the reverse-lookup map.
+	 *
+	 * @param element
+	 *            The element to get the labels for.
+	 * @return The {@link IntSortedSet} of labels for the element.
+	 */
+	private IntSortedSet getLabels(final int element) {
+		IntSortedSet result = reverseLookupMap.get(element);
+		if (result == null) {
+			result = indexCollectionFactory.get();
+			reverseLookupMap.put(element, result);
+		}
+		return result;
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int size = decorated.size();
+		positionLabels = new PositionLabelling(size);
+		final int keyCount = in.readInt();
+		// Pre-size the map so that it is never rehashed while reading
+		reverseLookupMap = new Int2ObjectOpenHashMap<>(keyCount);
+		// The indices which have already been read, so that an index which
+		// occurs more than once is detected
+		final long[] readIndices = new long[(size + 63) >>> 6];
+		int totalIndexCount = 0;
+		for (int i = 0; i < keyCount; ++i) {
+			final int indexCount = in.readInt();
+			if (indexCount < 1) {
+				throw new InvalidObjectException("Empty index block.");
+			}
+			final IntSortedSet labels = indexCollectionFactory.get();
+			int element = 0;
+			for (int j = 0; j < indexCount; ++j) {
+				// The initial label of each element is its index
+				final int index = in.readInt();
+				if (index < 0 || index >= size) {
+					throw new InvalidObjectException(String.format("Index %d out of bounds for size %d.", index, size));
+				}
+				if ((readIndices[index >>> 6] & 1L << index) != 0L) {
+					throw new InvalidObjectException(String.format("Index %d occurs more than once.", index));
+				}
+				readIndices[index >>> 6] |= 1L << index;
+				final int indexElement = decorated.getInt(index);
+				if (j == 0) {
+					element = indexElement;
+				} else if (element != indexElement) {
+					throw new InvalidObjectException(String.format(
+							"Index %d of the block of element %d is of element %d.", index, element, indexElement));
+				}
+				labels.add(index);
+			}
+			if (reverseLookupMap.put(element, labels) != null) {
+				throw new InvalidObjectException(String.format("Element %d has more than one block.", element));
+			}
+			totalIndexCount += indexCount;
+		}
+		// Since no index occurs twice, all indices were read iff as many
+		// indices were read as there are elements
+		if (totalIndexCount != size) {
+			throw new InvalidObjectException(
+					String.format("Read %d indices for a list of size %d.", totalIndexCount, size));
+		}
+	}
+
+	/**
+	 * Writes the decorated {@link IntList} followed by the reverse-lookup map
+	 * as one block of ascending {@code int} indices for each distinct element.
+	 * The elements themselves are not written again but rather are read from
+	 * the list at their first index.
+	 *
+	 * @param out
+	 *            The {@link ObjectOutputStream} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(reverseLookupMap.size());
+		for (final IntSortedSet labels : reverseLookupMap.values()) {
+			out.writeInt(labels.size());
+			for (final IntIterator labelIter = labels.iterator(); labelIter.hasNext();) {
+				out.writeInt(positionLabels.position(labelIter.nextInt()));
+			}
+		}
+	}
+
+	/**
+	 * Labels an element which was inserted into {@link #decorated the decorated
+	 * <code>IntList</code>} and puts the label into the reverse-lookup map.
+	 *
+	 * @param index
+	 *            The index of the element to label.
+	 * @param unlabelledElementCount
+	 *            The number of elements starting at {@code index} which were
+	 *            inserted into the decorated {@code IntList} but which have not
+	 *            yet been labelled.
+	 */
+	private void putLabel(final int index, final int unlabelledElementCount) {
+		final int label = positionLabels.insert(index, (position, oldLabel, newLabel) -> {
+			// The labelled positions do not yet include the unlabelled
+			// elements in the decorated list
+			final int decoratedIndex = position < index ? position : position + unlabelledElementCount;
+			final IntSortedSet labels = reverseLookupMap.get(decorated.getInt(decoratedIndex));
+			final boolean wasNewLabelPut = labels.add(newLabel);
+			assert wasNewLabelPut;
+			final boolean wasOldLabelRemoved = labels.remove(oldLabel);
+			assert wasOldLabelRemoved;
+		});
+		final boolean wasLabelPut = getLabels(decorated.getInt(index)).add(label);
+		assert wasLabelPut;
+	}
+
+	/**
+	 * Removes a label from the reverse-lookup map, removing the element from
+	 * the map entirely if it was its last label.
+	 *
+	 * @param element
+	 *            The element to remove the label for.
+	 * @param label
+	 *            The label to remove.
+	 */
+	private void removeLabel(final int element, final int label) {
+		final IntSortedSet labels = reverseLookupMap.get(element);
+		final boolean wasRemoved = labels.remove(label);
+		assert wasRemoved;
+		if (labels.isEmpty()) {
+			reverseLookupMap.remove(element);
+		}
+	}
+
+}
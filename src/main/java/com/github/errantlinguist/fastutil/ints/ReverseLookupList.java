@@ -15,9 +15,14 @@
  */
 package com.github.errantlinguist.fastutil.ints;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.ListIterator;
@@ -25,14 +30,30 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.function.Supplier;
 
-import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntIterator;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSets;
 
 /**
  * A {@link List} implementation which decorates another {@link List} instance,
  * maintaining a {@link MultiValueObject2IntMap} which has the list elements
  * {@code E} as keys which are mapped to {@link IntSortedSet} objects containing
  * the indices at which each element occurs in the decorated {@code List}.
+ * <p>
+ * Rather than the indices themselves, the reverse-lookup map stores
+ * {@link PositionLabelling labels} which are ordered the same as the indices
+ * they label but which do not change when an element is inserted or removed
+ * before them. Therefore, inserting or removing an element at an arbitrary
+ * index does not require updating the entries of all the elements following
+ * it.
+ * </p>
+ * <p>
+ * When serialized, the reverse-lookup map is written as blocks of
+ * {@code int} indices following the decorated {@code List} so that it can be
+ * read back without re-indexing the entire list.
+ * </p>
  *
  * @param <E>
  *            The type of the elements of the decorated {@code List}.
@@ -54,9 +75,16 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	private final Supplier<? extends IntSortedSet> indexCollectionFactory;
 
 	/**
-	 * The reverse-lookup index map for the elements of {@link #decorated the
+	 * The {@link PositionLabelling} of the indices of {@link #decorated the
 	 * decorated <code>List</code>}.
 	 */
+	private transient PositionLabelling positionLabels;
+
+	/**
+	 * The reverse-lookup map for the elements of {@link #decorated the
+	 * decorated <code>List</code>}, which maps each element to the
+	 * {@link #positionLabels labels} of the indices at which it occurs.
+	 */
 	private transient MultiValueObject2IntMap<E, ? extends IntSortedSet> reverseLookupMap;
 
 	/**
@@ -64,7 +92,7 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	 *            The {@link List} to decorate.
 	 */
 	public ReverseLookupList(final List<E> decorated) {
-		this(decorated, IntRBTreeSet::new);
+		this(decorated, AdaptiveIntSortedSet.SERIALIZABLE_FACTORY);
 	}
 
 	/**
@@ -75,16 +103,14 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 		this.decorated = decorated;
 		this.indexCollectionFactory = indexCollectionFactory;
 
-		this.reverseLookupMap = createNewReverseLookupMap();
+		createNewReverseLookupMap();
 	}
 
 	@Override
 	public boolean add(final E element) {
-		final int index = decorated.size();
 		final boolean result = decorated.add(element);
 		if (result) {
-			final boolean wasIndexPut = reverseLookupMap.putValue(element, index);
-			assert wasIndexPut;
+			putLabel(decorated.size() - 1, 1);
 		}
 
 		return result;
@@ -93,15 +119,9 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	@Override
 	public void add(final int index, final E element) {
 		decorated.add(index, element);
-		// shift all indices in map after "index"
-		final int lastIndex = decorated.size();
-		final List<E> shiftedElements = decorated.subList(index + 1, lastIndex);
-		MultiValueObject2IntMap.incrementValues(reverseLookupMap, shiftedElements, 1, index, lastIndex);
-		// Put the new element into the reverse-lookup map after shifting the
-		// existing elements because it is possible that the element is present
-		// elsewhere in the list and so already has entries in the map
-		final boolean wasIndexPut = reverseLookupMap.putValue(element, index);
-		assert wasIndexPut;
+		// The labels of the elements after "index" do not need to be updated
+		// because they are still ordered correctly
+		putLabel(index, 1);
 	}
 
 	@Override
@@ -109,15 +129,14 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 		final int lowestNewIndex = decorated.size();
 		final boolean result = decorated.addAll(c);
 		if (result) {
-			// Use a sublist of the decorated list for updating the
-			// reverse-lookup map instead of using the argument collection
-			// directly because it is possible that not all elements from the
-			// argument collection were successfully added
-			final int highestNewIndex = decorated.size();
-			final List<E> addedElements = decorated.subList(lowestNewIndex, highestNewIndex);
-			final boolean wereIndicesPut = MultiValueObject2IntMap.putIncrementingValues(reverseLookupMap,
-					addedElements, lowestNewIndex);
-			assert wereIndicesPut;
+			// Label the elements added to the decorated list rather than
+			// those of the argument collection because it is possible that
+			// not all elements from the argument collection were successfully
+			// added
+			final int newSize = decorated.size();
+			for (int index = lowestNewIndex; index < newSize; ++index) {
+				putLabel(index, newSize - index);
+			}
 		}
 
 		return result;
@@ -132,19 +151,9 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 			// is possible that not every single element from "c" was
 			// successfully added
 			final int addedElementCount = decorated.size() - oldSize;
-			// Shift indices of existing elements in the reverse-lookup map
-			// first to avoid possible key-value pair clashes
-			final int lastShiftedElementOldIndex = index + addedElementCount;
-			final List<E> shiftedElements = decorated.subList(index, lastShiftedElementOldIndex);
-			MultiValueObject2IntMap.incrementValues(reverseLookupMap, shiftedElements, addedElementCount, index,
-					lastShiftedElementOldIndex);
-			// Put the new elements into the reverse-lookup map after shifting
-			// the
-			// existing elements because it is possible that the elements are
-			// present
-			// elsewhere in the list and so already have entries in the map
-			final boolean wasPut = MultiValueObject2IntMap.putIncrementingValues(reverseLookupMap, c, index);
-			assert wasPut;
+			for (int i = 0; i < addedElementCount; ++i) {
+				putLabel(index + i, addedElementCount - i);
+			}
 		}
 
 		return result;
@@ -153,6 +162,7 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	@Override
 	public void clear() {
 		decorated.clear();
+		positionLabels.clear();
 		reverseLookupMap.clear();
 	}
 
@@ -202,12 +212,20 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	}
 
 	/**
-	 * @return An unmodifiable view of the reverse-lookup index map for the
+	 * @return An unmodifiable copy of the reverse-lookup index map for the
 	 *         elements of {@link #getDecorated() the decorated
 	 *         <code>List</code>}.
 	 */
 	public Map<E, IntSortedSet> getReverseLookupMap() {
-		return Collections.unmodifiableMap(reverseLookupMap);
+		final Map<E, IntSortedSet> result = new HashMap<>(reverseLookupMap.size() + 1);
+		for (final Map.Entry<E, ? extends IntSortedSet> entry : reverseLookupMap.entrySet()) {
+			final IntSortedSet indices = new AdaptiveIntSortedSet();
+			for (final IntIterator labelIter = entry.getValue().iterator(); labelIter.hasNext();) {
+				indices.add(positionLabels.position(labelIter.nextInt()));
+			}
+			result.put(entry.getKey(), IntSortedSets.unmodifiable(indices));
+		}
+		return Collections.unmodifiableMap(result);
 	}
 
 	/*
@@ -227,11 +245,11 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	public int indexOf(final Object o) {
 		final int result;
 
-		final IntSortedSet indices = reverseLookupMap.get(o);
-		if (indices.isEmpty()) {
+		final IntSortedSet labels = reverseLookupMap.get(o);
+		if (labels == null || labels.isEmpty()) {
 			result = -1;
 		} else {
-			result = indices.first();
+			result = positionLabels.position(labels.firstInt());
 		}
 
 		return result;
@@ -251,11 +269,11 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	public int lastIndexOf(final Object o) {
 		final int result;
 
-		final IntSortedSet indices = reverseLookupMap.get(o);
-		if (indices.isEmpty()) {
+		final IntSortedSet labels = reverseLookupMap.get(o);
+		if (labels == null || labels.isEmpty()) {
 			result = -1;
 		} else {
-			result = indices.lastInt();
+			result = positionLabels.position(labels.lastInt());
 		}
 
 		return result;
@@ -274,15 +292,9 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 	@Override
 	public E remove(final int index) {
 		final E result = decorated.remove(index);
-		// Remove the element from the reverse-lookup map before shifting the
-		// remaining elements because it is possible that the element is present
-		// elsewhere in the list and so still has entries in the map
-		final boolean wasRemoved = reverseLookupMap.removeValue(result, index);
-		assert wasRemoved;
-		// shift all indices in map after "index"
-		final int lastIndex = decorated.size();
-		final List<E> shiftedElements = decorated.subList(index + 1, lastIndex);
-		MultiValueObject2IntMap.incrementValues(reverseLookupMap, shiftedElements, -1, index, lastIndex);
+		// The labels of the elements after "index" do not need to be updated
+		// because they are still ordered correctly
+		removeLabel(result, positionLabels.remove(index));
 
 		return result;
 	}
@@ -305,37 +317,23 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 
 	@Override
 	public boolean removeAll(final Collection<?> c) {
-		final boolean result = decorated.removeAll(c);
-		if (result) {
-			// Update the entire reverse-lookup map because it's simpler than
-			// trying to deduce which elements were successfully removed
-			reverseLookupMap = createNewReverseLookupMap();
-		}
-
-		return result;
+		return batchRemove(c, false);
 	}
 
 	@Override
 	public boolean retainAll(final Collection<?> c) {
-		final boolean result = decorated.retainAll(c);
-		if (result) {
-			// Update the entire reverse-lookup map because it's simpler than
-			// trying to deduce which elements were successfully removed
-			reverseLookupMap = createNewReverseLookupMap();
-		}
-
-		return result;
+		return batchRemove(c, true);
 	}
 
 	@Override
 	public E set(final int index, final E element) {
 		final E result = decorated.set(index, element);
 
-		// Remove the old key-index pair from the reverse-lookup map
-		final boolean wasOldKeyRemoved = reverseLookupMap.removeValue(result, index);
-		assert wasOldKeyRemoved;
-		// Put the new key-index pair into the reverse-lookup map
-		final boolean wasNewKeyPut = reverseLookupMap.putValue(element, index);
+		final int label = positionLabels.label(index);
+		// Remove the old key-label pair from the reverse-lookup map
+		removeLabel(result, label);
+		// Put the new key-label pair into the reverse-lookup map
+		final boolean wasNewKeyPut = reverseLookupMap.putValue(element, label);
 		assert wasNewKeyPut;
 
 		return result;
@@ -379,8 +377,46 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 		return builder.toString();
 	}
 
-	private MultiValueObject2IntMap<E, ? extends IntSortedSet> createNewReverseLookupMap() {
-		return ListIntIndices.createListIndexMap(decorated, indexCollectionFactory);
+	/**
+	 * Removes the elements which either are or are not in a given
+	 * {@link Collection}, removing only the labels of the removed elements
+	 * from the reverse-lookup map.
+	 *
+	 * @param c
+	 *            The {@code Collection} to check elements against.
+	 * @param complement
+	 *            If {@code true}, the elements not in {@code c} are removed;
+	 *            Otherwise, the elements in {@code c} are removed.
+	 * @return {@code true} iff at least one element was removed.
+	 */
+	private boolean batchRemove(final Collection<?> c, final boolean complement) {
+		final IntArrayList removedIndices = new IntArrayList();
+		{
+			int index = 0;
+			for (final E element : decorated) {
+				if (c.contains(element) != complement) {
+					removedIndices.add(index);
+				}
+				++index;
+			}
+		}
+		// Remove the labels in descending order so that the indices of the
+		// labels still to be removed do not change; The labels of the
+		// remaining elements stay ordered correctly and so are not updated
+		for (int i = removedIndices.size() - 1; i >= 0; --i) {
+			final int removedIndex = removedIndices.getInt(i);
+			removeLabel(decorated.get(removedIndex), positionLabels.remove(removedIndex));
+		}
+
+		final boolean result = complement ? decorated.retainAll(c) : decorated.removeAll(c);
+		assert result == !removedIndices.isEmpty();
+		return result;
+	}
+
+	private void createNewReverseLookupMap() {
+		// The initial label of each element is its index
+		positionLabels = new PositionLabelling(decorated.size());
+		reverseLookupMap = ListIntIndices.createListIndexMap(decorated, indexCollectionFactory);
 	}
 
 	private boolean isEquivalentTo(final ReverseLookupList<?> other) {
@@ -389,4 +425,144 @@ public final class ReverseLookupList<E> implements List<E>, Serializable {
 		return Objects.equals(decorated, other.decorated);
 	}
 
+	/**
+	 * Reads the reverse-lookup map written by
+	 * {@link #writeObject(ObjectOutputStream)}, creating a new map of the
+	 * given type.
+	 *
+	 * @param in
+	 *            The {@link ObjectInputStream} to read from.
+	 * @param valueCollectionFactory
+	 *            The {@link Supplier} to use for creating new index
+	 *            collections.
+	 * @return A new {@link MultiValueObject2IntMap}.
+	 * @throws IOException
+	 *             If an I/O error occurs or the stream is invalid.
+	 */
+	private <C extends IntSortedSet> MultiValueObject2IntMap<E, C> readReverseLookupMap(final ObjectInputStream in,
+			final Supplier<C> valueCollectionFactory) throws IOException {
+		final int size = decorated.size();
+		final int keyCount = in.readInt();
+		// Pre-size the maps so that they are never rehashed while reading;
+		// Each index is still hashed once in order to count it as a value of
+		// the reverse-lookup map
+		final Map<E, C> decoratedMap = new HashMap<>((int) Math.ceil(keyCount / 0.75) + 1);
+		final Int2IntOpenHashMap valueCounts = new Int2IntOpenHashMap(size);
+		// The indices which have already been read, so that an index which
+		// occurs in more than one block is detected
+		final long[] readIndices = new long[(size + 63) >>> 6];
+		for (int i = 0; i < keyCount; ++i) {
+			final int indexCount = in.readInt();
+			if (indexCount < 1) {
+				throw new InvalidObjectException("Empty index block.");
+			}
+			final C labels = valueCollectionFactory.get();
+			E element = null;
+			for (int j = 0; j < indexCount; ++j) {
+				// The initial label of each element is its index
+				final int index = in.readInt();
+				if (index < 0 || index >= size) {
+					throw new InvalidObjectException(String.format("Index %d out of bounds for size %d.", index, size));
+				}
+				if ((readIndices[index >>> 6] & 1L << index) != 0L) {
+					throw new InvalidObjectException(String.format("Index %d occurs more than once.", index));
+				}
+				readIndices[index >>> 6] |= 1L << index;
+				final E indexElement = decorated.get(index);
+				if (j == 0) {
+					element = indexElement;
+				} else if (!Objects.equals(element, indexElement)) {
+					throw new InvalidObjectException(
+							String.format("Index %d of the block of element \"%s\" is of element \"%s\".", index,
+									element, indexElement));
+				}
+				labels.add(index);
+				valueCounts.put(index, 1);
+			}
+			if (decoratedMap.put(element, labels) != null) {
+				throw new InvalidObjectException(String.format("Element \"%s\" has more than one block.", element));
+			}
+		}
+		// Since no index occurs twice, all indices were read iff as many
+		// indices were read as there are elements
+		if (valueCounts.size() != size) {
+			throw new InvalidObjectException(
+					String.format("Read %d indices for a list of size %d.", valueCounts.size(), size));
+		}
+		return new MultiValueObject2IntMap<>(decoratedMap, valueCollectionFactory, valueCounts);
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		positionLabels = new PositionLabelling(decorated.size());
+		reverseLookupMap = readReverseLookupMap(in, indexCollectionFactory);
+	}
+
+	/**
+	 * Writes the decorated {@link List} followed by the reverse-lookup map as
+	 * one block of ascending {@code int} indices for each distinct element.
+	 * The elements themselves are not written again but rather are read from
+	 * the list at their first index.
+	 *
+	 * @param out
+	 *            The {@link ObjectOutputStream} to write to.
+	 * @throws IOException
+	 *             If an I/O error occurs.
+	 */
+	private void writeObject(final ObjectOutputStream out) throws IOException {
+		out.defaultWriteObject();
+		out.writeInt(reverseLookupMap.size());
+		for (final IntSortedSet labels : reverseLookupMap.values()) {
+			out.writeInt(labels.size());
+			for (final IntIterator labelIter = labels.iterator(); labelIter.hasNext();) {
+				out.writeInt(positionLabels.position(labelIter.nextInt()));
+			}
+		}
+	}
+
+	/**
+	 * Labels an element which was inserted into {@link #decorated the decorated
+	 * <code>List</code>} and puts the label into the reverse-lookup map.
+	 *
+	 * @param index
+	 *            The index of the element to label.
+	 * @param unlabelledElementCount
+	 *            The number of elements starting at {@code index} which were
+	 *            inserted into the decorated {@code List} but which have not
+	 *            yet been labelled.
+	 */
+	private void putLabel(final int index, final int unlabelledElementCount) {
+		final int label = positionLabels.insert(index, (position, oldLabel, newLabel) -> {
+			// The labelled positions do not yet include the unlabelled
+			// elements in the decorated list
+			final int decoratedIndex = position < index ? position : position + unlabelledElementCount;
+			final E relabelledElement = decorated.get(decoratedIndex);
+			// Put the new label before removing the old one so that the
+			// element is never left without any labels
+			final boolean wasNewLabelPut = reverseLookupMap.putValue(relabelledElement, newLabel);
+			assert wasNewLabelPut;
+			final boolean wasOldLabelRemoved = reverseLookupMap.removeValue(relabelledElement, oldLabel);
+			assert wasOldLabelRemoved;
+		});
+		final boolean wasLabelPut = reverseLookupMap.putValue(decorated.get(index), label);
+		assert wasLabelPut;
+	}
+
+	/**
+	 * Removes a label from the reverse-lookup map, removing the element from
+	 * the map entirely if it was its last label.
+	 *
+	 * @param element
+	 *            The element to remove the label for.
+	 * @param label
+	 *            The label to remove.
+	 */
+	private void removeLabel(final E element, final int label) {
+		final boolean wasRemoved = reverseLookupMap.removeValue(element, label);
+		assert wasRemoved;
+		if (reverseLookupMap.get(element).isEmpty()) {
+			reverseLookupMap.remove(element);
+		}
+	}
+
 }
@@ -15,6 +15,9 @@
  */
 package com.github.errantlinguist.fastutil.ints;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.Collection;
 import java.util.Collections;
@@ -28,6 +31,7 @@ import java.util.Spliterator;
 import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import it.unimi.dsi.fastutil.objects.Object2IntMap;
 import it.unimi.dsi.fastutil.objects.Object2IntMaps;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
 
 /**
  * A combined {@link List} and {@link Set} implementation which decorates a
@@ -90,10 +94,8 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 	@Override
 	public void add(final int index, final E element) {
 		decorated.add(index, element);
-		// shift all indices in map after "index"
-		final int lastIndex = decorated.size();
-		final List<E> shiftedElements = decorated.subList(index + 1, lastIndex);
-		Object2IntMapValueArithmetic.incrementValues(reverseLookupMap, shiftedElements, 1, index, lastIndex);
+		// shift all indices in map of the elements after "index"
+		shiftIndices(index + 1, 1);
 		// Put the new element into the reverse-lookup map after shifting the
 		// existing elements because it is possible that the element is present
 		// elsewhere in the list and so already has entries in the map
@@ -129,10 +131,7 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 			final int addedElementCount = decorated.size() - oldSize;
 			// Shift indices of existing elements in the reverse-lookup map
 			// first to avoid possible key-value pair clashes
-			final int lastShiftedElementOldIndex = index + addedElementCount;
-			final List<E> shiftedElements = decorated.subList(index, lastShiftedElementOldIndex);
-			Object2IntMapValueArithmetic.incrementValues(reverseLookupMap, shiftedElements, addedElementCount, index,
-					lastShiftedElementOldIndex);
+			shiftIndices(index + addedElementCount, addedElementCount);
 			// Put the new elements into the reverse-lookup map after shifting
 			// the
 			// existing elements because it is possible that the elements are
@@ -183,6 +182,18 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 		return result;
 	}
 
+	/**
+	 * Creates an immutable copy of this set which looks up element indices
+	 * using a minimal perfect hash function instead of a hash table, for
+	 * vocabularies which no longer change.
+	 *
+	 * @return A new {@link FrozenIndexedObjectSet} containing the elements of
+	 *         this set in the same order.
+	 */
+	public FrozenIndexedObjectSet<E> freeze() {
+		return new FrozenIndexedObjectSet<>(decorated);
+	}
+
 	@Override
 	public E get(final int index) {
 		return decorated.get(index);
@@ -256,9 +267,7 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 		final Integer oldVal = reverseLookupMap.remove(result);
 		assert oldVal != null && oldVal.equals(index);
 		// shift all indices in map after "index"
-		final int lastIndex = decorated.size();
-		final List<E> shiftedElements = decorated.subList(index + 1, lastIndex);
-		Object2IntMapValueArithmetic.incrementValues(reverseLookupMap, shiftedElements, -1, index, lastIndex);
+		shiftIndices(index, -1);
 
 		return result;
 	}
@@ -281,26 +290,12 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 
 	@Override
 	public boolean removeAll(final Collection<?> c) {
-		final boolean result = decorated.removeAll(c);
-		if (result) {
-			// Update the entire reverse-lookup map because it's simpler than
-			// trying to deduce which elements were successfully removed
-			reverseLookupMap = createNewReverseLookupMap();
-		}
-
-		return result;
+		return batchRemove(c, false);
 	}
 
 	@Override
 	public boolean retainAll(final Collection<?> c) {
-		final boolean result = decorated.retainAll(c);
-		if (result) {
-			// Update the entire reverse-lookup map because it's simpler than
-			// trying to deduce which elements were successfully removed
-			reverseLookupMap = createNewReverseLookupMap();
-		}
-
-		return result;
+		return batchRemove(c, true);
 	}
 
 	@Override
@@ -360,6 +355,44 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 		return builder.toString();
 	}
 
+	/**
+	 * Removes the elements which either are or are not in a given
+	 * {@link Collection}, updating the reverse-lookup map in place in a single
+	 * pass over the decorated {@link List}.
+	 *
+	 * @param c
+	 *            The {@code Collection} to check elements against.
+	 * @param complement
+	 *            If {@code true}, the elements not in {@code c} are removed;
+	 *            Otherwise, the elements in {@code c} are removed.
+	 * @return {@code true} iff at least one element was removed.
+	 */
+	private boolean batchRemove(final Collection<?> c, final boolean complement) {
+		int removedCount = 0;
+		{
+			int index = 0;
+			for (final E element : decorated) {
+				if (c.contains(element) == complement) {
+					// Shift the index of the retained element by the number of
+					// elements removed before it
+					if (removedCount > 0) {
+						final int oldValue = reverseLookupMap.put(element, index - removedCount);
+						assert oldValue == index;
+					}
+				} else {
+					final int oldValue = reverseLookupMap.removeInt(element);
+					assert oldValue == index;
+					++removedCount;
+				}
+				++index;
+			}
+		}
+
+		final boolean result = complement ? decorated.retainAll(c) : decorated.removeAll(c);
+		assert result == removedCount > 0;
+		return result;
+	}
+
 	private Object2IntMap<E> createNewReverseLookupMap() {
 		return ListIntIndices.createOrderedSetIndexMap(decorated);
 	}
@@ -370,4 +403,53 @@ public final class ReverseLookupOrderedSet<E> implements List<E>, Serializable,
 		return Objects.equals(decorated, other.decorated);
 	}
 
+	/**
+	 * Re-creates the reverse-lookup map after reading the decorated
+	 * {@link List}: Since the index of each element is simply its position in
+	 * the list, the map is not written but is instead filled in a single
+	 * pre-sized pass without re-checking the elements for uniqueness.
+	 *
+	 * @param in
+	 *            The {@link ObjectInputStream} to read from.
+	 * @throws IOException
+	 *             If an I/O error occurs or the decorated list contains
+	 *             duplicate elements.
+	 * @throws ClassNotFoundException
+	 *             If the class of a serialized object cannot be found.
+	 */
+	/**
+	 * Updates the indices of the elements which were moved to the end of the
+	 * decorated {@link List} by inserting or removing elements before them.
+	 *
+	 * @param from
+	 *            The new index of the first moved element.
+	 * @param delta
+	 *            The amount by which the elements were moved.
+	 */
+	private void shiftIndices(final int from, final int delta) {
+		final int movedElementCount = decorated.size() - from;
+		if (movedElementCount > 0) {
+			if (movedElementCount < reverseLookupMap.size() / 2) {
+				// Putting the new index of each moved element is cheaper than
+				// walking the entire table of the reverse-lookup map
+				Object2IntMapValueArithmetic.putIncrementingValues(reverseLookupMap,
+						decorated.subList(from, decorated.size()), from);
+			} else {
+				Object2IntMapValueArithmetic.shiftValuesInRange(reverseLookupMap, from - delta, Integer.MAX_VALUE,
+						delta);
+			}
+		}
+	}
+
+	private void readObject(final ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		final int size = decorated.size();
+		reverseLookupMap = new Object2IntOpenHashMap<>(size);
+		reverseLookupMap.defaultReturnValue(-1);
+		Object2IntMapValueArithmetic.putIncrementingValues(reverseLookupMap, decorated, 0);
+		if (reverseLookupMap.size() != size) {
+			throw new InvalidObjectException("Decorated list contains non-unique elements.");
+		}
+	}
+
 }
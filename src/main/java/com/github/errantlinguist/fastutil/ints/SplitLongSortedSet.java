@@ -0,0 +1,575 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.function.Supplier;
+
+import it.unimi.dsi.fastutil.ints.IntBidirectionalIterator;
+import it.unimi.dsi.fastutil.ints.IntIterators;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
+import it.unimi.dsi.fastutil.longs.AbstractLongBidirectionalIterator;
+import it.unimi.dsi.fastutil.longs.AbstractLongSortedSet;
+import it.unimi.dsi.fastutil.longs.LongBidirectionalIterator;
+import it.unimi.dsi.fastutil.longs.LongComparator;
+import it.unimi.dsi.fastutil.longs.LongSortedSet;
+
+/**
+ * A {@link LongSortedSet} which splits each element into its high and low
+ * 32-bit words, storing the low words of all elements with the same high word
+ * in an {@link IntSortedSet}. Positions in a sequence longer than
+ * {@link Integer#MAX_VALUE} have only a handful of distinct high words, so
+ * each element takes no more space than an {@code int} element of the
+ * {@code IntSortedSet} type used for the low words, e.g.&nbsp;little more than
+ * a byte for close-together positions in a {@link CompressedIntSortedSet}.
+ * <p>
+ * The high words are kept in a sorted array, so finding the low-word set of
+ * an element takes time logarithmic in the number of distinct high words.
+ * </p>
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+public final class SplitLongSortedSet extends AbstractLongSortedSet implements Serializable {
+
+	/**
+	 * An iterator over the low-word sets of the set in order, which optionally
+	 * stops at the bounds of a {@link Subset}.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class SplitIterator extends AbstractLongBidirectionalIterator {
+
+		/**
+		 * If {@code true}, the iterator has no lower bound.
+		 */
+		private final boolean bottom;
+
+		/**
+		 * The inclusive lower bound of the elements to iterate over.
+		 */
+		private final long from;
+
+		/**
+		 * If {@code true}, {@link #last} has been returned and not yet removed.
+		 */
+		private boolean hasLast;
+
+		/**
+		 * The index of the high word of the current low-word set.
+		 */
+		private int highIdx;
+
+		/**
+		 * The element last returned.
+		 */
+		private long last;
+
+		/**
+		 * The iterator over the current low-word set.
+		 */
+		private IntBidirectionalIterator lowIter;
+
+		/**
+		 * The exclusive upper bound of the elements to iterate over.
+		 */
+		private final long to;
+
+		/**
+		 * If {@code true}, the iterator has no upper bound.
+		 */
+		private final boolean top;
+
+		private SplitIterator(final long from, final boolean bottom, final long to, final boolean top) {
+			this.from = from;
+			this.bottom = bottom;
+			this.to = to;
+			this.top = top;
+		}
+
+		@Override
+		public boolean hasNext() {
+			boolean result = advanceNext();
+			if (result && !top) {
+				// Peek at the next element
+				final long next = element(highs[highIdx], lowIter.nextInt());
+				lowIter.previousInt();
+				result = next < to;
+			}
+			return result;
+		}
+
+		@Override
+		public boolean hasPrevious() {
+			boolean result = advancePrevious();
+			if (result && !bottom) {
+				// Peek at the previous element
+				final long previous = element(highs[highIdx], lowIter.previousInt());
+				lowIter.nextInt();
+				result = previous >= from;
+			}
+			return result;
+		}
+
+		@Override
+		public long nextLong() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			last = element(highs[highIdx], lowIter.nextInt());
+			hasLast = true;
+			return last;
+		}
+
+		@Override
+		public long previousLong() {
+			if (!hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			last = element(highs[highIdx], lowIter.previousInt());
+			hasLast = true;
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (!hasLast) {
+				throw new IllegalStateException();
+			}
+			SplitLongSortedSet.this.remove(last);
+			// The low-word set may have been removed, and its iterator may not
+			// support modification of the set
+			seek(last);
+			hasLast = false;
+		}
+
+		/**
+		 * Moves to the next low-word set until one has a next element.
+		 *
+		 * @return {@code true} iff there is a next element.
+		 */
+		private boolean advanceNext() {
+			boolean result = lowIter.hasNext();
+			while (!result && highIdx + 1 < highCount) {
+				lowIter = lows[++highIdx].iterator();
+				result = lowIter.hasNext();
+			}
+			return result;
+		}
+
+		/**
+		 * Moves to the previous low-word set until one has a previous element.
+		 *
+		 * @return {@code true} iff there is a previous element.
+		 */
+		private boolean advancePrevious() {
+			boolean result = lowIter.hasPrevious();
+			while (!result && highIdx > 0) {
+				final IntSortedSet previousLows = lows[--highIdx];
+				lowIter = previousLows.iterator(previousLows.lastInt());
+				result = lowIter.hasPrevious();
+			}
+			return result;
+		}
+
+		/**
+		 * Positions the iterator before the first element greater than a given
+		 * element.
+		 *
+		 * @param k
+		 *            The element to position the iterator after.
+		 * @return This iterator.
+		 */
+		private SplitIterator seek(final long k) {
+			final int idx = Arrays.binarySearch(highs, 0, highCount, high(k));
+			if (idx >= 0) {
+				highIdx = idx;
+				lowIter = lows[idx].iterator(low(k));
+			} else {
+				final int insertionPoint = -idx - 1;
+				if (insertionPoint < highCount) {
+					highIdx = insertionPoint;
+					lowIter = lows[insertionPoint].iterator();
+				} else if (highCount > 0) {
+					highIdx = highCount - 1;
+					lowIter = lows[highIdx].iterator(lows[highIdx].lastInt());
+				} else {
+					highIdx = 0;
+					lowIter = IntIterators.EMPTY_ITERATOR;
+				}
+			}
+			return this;
+		}
+
+		/**
+		 * Positions the iterator before the first element not less than a
+		 * given element.
+		 *
+		 * @param k
+		 *            The element to position the iterator at.
+		 * @return This iterator.
+		 */
+		private SplitIterator seekInclusive(final long k) {
+			return k == Long.MIN_VALUE ? start() : seek(k - 1);
+		}
+
+		/**
+		 * Positions the iterator before the first element of the set.
+		 *
+		 * @return This iterator.
+		 */
+		private SplitIterator start() {
+			highIdx = 0;
+			lowIter = highCount > 0 ? lows[0].iterator() : IntIterators.EMPTY_ITERATOR;
+			return this;
+		}
+	}
+
+	/**
+	 * A view of the elements of the set within a range.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	private final class Subset extends AbstractLongSortedSet implements Serializable {
+
+		/**
+		 * The generated serial version UID.
+		 */
+		private static final long serialVersionUID = -5529049873624911374L;
+
+		/**
+		 * If {@code true}, the subset has no lower bound.
+		 */
+		private final boolean bottom;
+
+		/**
+		 * The inclusive lower bound of the subset.
+		 */
+		private final long from;
+
+		/**
+		 * The exclusive upper bound of the subset.
+		 */
+		private final long to;
+
+		/**
+		 * If {@code true}, the subset has no upper bound.
+		 */
+		private final boolean top;
+
+		private Subset(final long from, final boolean bottom, final long to, final boolean top) {
+			if (!bottom && !top && from > to) {
+				throw new IllegalArgumentException(
+						String.format("Start element (%d) is larger than end element (%d)", from, to));
+			}
+			this.from = from;
+			this.bottom = bottom;
+			this.to = to;
+			this.top = top;
+		}
+
+		@Override
+		public boolean add(final long k) {
+			if (!isInRange(k)) {
+				throw new IllegalArgumentException(
+						String.format("Element (%d) out of range [%s, %s)", k, bottom ? "-" : from, top ? "-" : to));
+			}
+			return SplitLongSortedSet.this.add(k);
+		}
+
+		@Override
+		public void clear() {
+			for (final LongBidirectionalIterator iter = iterator(); iter.hasNext();) {
+				iter.nextLong();
+				iter.remove();
+			}
+		}
+
+		@Override
+		public LongComparator comparator() {
+			return null;
+		}
+
+		@Override
+		public boolean contains(final long k) {
+			return isInRange(k) && SplitLongSortedSet.this.contains(k);
+		}
+
+		@Override
+		public long firstLong() {
+			final LongBidirectionalIterator iter = iterator();
+			if (!iter.hasNext()) {
+				throw new NoSuchElementException();
+			}
+			return iter.nextLong();
+		}
+
+		@Override
+		public LongSortedSet headSet(final long to) {
+			return top || to < this.to ? new Subset(from, bottom, to, false) : this;
+		}
+
+		@Override
+		public LongBidirectionalIterator iterator() {
+			final SplitIterator result = new SplitIterator(from, bottom, to, top);
+			return bottom ? result.start() : result.seekInclusive(from);
+		}
+
+		@Override
+		public LongBidirectionalIterator iterator(final long from) {
+			final SplitIterator result = new SplitIterator(this.from, bottom, to, top);
+			if (!bottom && from < this.from) {
+				result.seekInclusive(this.from);
+			} else if (!top && from >= to) {
+				result.seekInclusive(to);
+			} else {
+				result.seek(from);
+			}
+			return result;
+		}
+
+		@Override
+		public long lastLong() {
+			final SplitIterator iter = new SplitIterator(from, bottom, to, top);
+			if (top) {
+				iter.seek(SplitLongSortedSet.this.lastLong());
+			} else {
+				iter.seekInclusive(to);
+			}
+			if (!iter.hasPrevious()) {
+				throw new NoSuchElementException();
+			}
+			return iter.previousLong();
+		}
+
+		@Override
+		public boolean remove(final long k) {
+			return isInRange(k) && SplitLongSortedSet.this.remove(k);
+		}
+
+		@Override
+		public int size() {
+			int result = 0;
+			for (final LongBidirectionalIterator iter = iterator(); iter.hasNext();) {
+				iter.nextLong();
+				++result;
+			}
+			return result;
+		}
+
+		@Override
+		public LongSortedSet subSet(final long from, final long to) {
+			final long newFrom = bottom ? from : Math.max(from, this.from);
+			final long newTo = top ? to : Math.min(to, this.to);
+			return new Subset(newFrom, false, newTo, false);
+		}
+
+		@Override
+		public LongSortedSet tailSet(final long from) {
+			return bottom || from > this.from ? new Subset(from, false, to, top) : this;
+		}
+
+		private boolean isInRange(final long k) {
+			return (bottom || k >= from) && (top || k < to);
+		}
+
+	}
+
+	/**
+	 * A {@link Supplier} of new, empty {@code SplitLongSortedSet} instances
+	 * which store their low words in {@link CompressedIntSortedSet} instances
+	 * and which is itself serializable, so that it can be used as the value
+	 * collection factory of a {@link MultiValueObject2LongMap}.
+	 */
+	public static final Supplier<LongSortedSet> SERIALIZABLE_FACTORY = (Supplier<LongSortedSet> & Serializable) SplitLongSortedSet::new;
+
+	/**
+	 * The generated serial version UID.
+	 */
+	private static final long serialVersionUID = 3290712446316505521L;
+
+	private static long element(final int high, final int low) {
+		return (long) high << 32 | (low ^ Integer.MIN_VALUE) & 0xFFFFFFFFL;
+	}
+
+	private static int high(final long k) {
+		return (int) (k >> 32);
+	}
+
+	/**
+	 * @param k
+	 *            An element.
+	 * @return The low word of the element, offset so that the signed order of
+	 *         the low words is the same as their unsigned order.
+	 */
+	private static int low(final long k) {
+		return (int) k ^ Integer.MIN_VALUE;
+	}
+
+	/**
+	 * The number of distinct high words.
+	 */
+	private int highCount;
+
+	/**
+	 * The distinct high words of the elements in ascending order.
+	 */
+	private int[] highs;
+
+	/**
+	 * The {@link Supplier} used for creating new low-word sets.
+	 */
+	private final Supplier<? extends IntSortedSet> lowSetFactory;
+
+	/**
+	 * The low words of the elements with each high word.
+	 */
+	private IntSortedSet[] lows;
+
+	/**
+	 * The number of elements in the set.
+	 */
+	private int size;
+
+	/**
+	 * Creates a new, empty set which stores its low words in
+	 * {@link CompressedIntSortedSet} instances.
+	 */
+	public SplitLongSortedSet() {
+		this(CompressedIntSortedSet.SERIALIZABLE_FACTORY);
+	}
+
+	/**
+	 * Creates a new, empty set.
+	 *
+	 * @param lowSetFactory
+	 *            The {@link Supplier} to use for creating the sets of the low
+	 *            words of the elements with the same high word, which must
+	 *            itself be serializable for the set to be serializable.
+	 */
+	public SplitLongSortedSet(final Supplier<? extends IntSortedSet> lowSetFactory) {
+		this.lowSetFactory = lowSetFactory;
+		highs = new int[1];
+		lows = new IntSortedSet[1];
+	}
+
+	@Override
+	public boolean add(final long k) {
+		final int high = high(k);
+		int idx = Arrays.binarySearch(highs, 0, highCount, high);
+		if (idx < 0) {
+			idx = -idx - 1;
+			if (highCount == highs.length) {
+				highs = Arrays.copyOf(highs, highCount * 2);
+				lows = Arrays.copyOf(lows, highCount * 2);
+			}
+			System.arraycopy(highs, idx, highs, idx + 1, highCount - idx);
+			System.arraycopy(lows, idx, lows, idx + 1, highCount - idx);
+			highs[idx] = high;
+			lows[idx] = lowSetFactory.get();
+			++highCount;
+		}
+		final boolean result = lows[idx].add(low(k));
+		if (result) {
+			++size;
+		}
+		return result;
+	}
+
+	@Override
+	public void clear() {
+		Arrays.fill(lows, 0, highCount, null);
+		highCount = 0;
+		size = 0;
+	}
+
+	@Override
+	public LongComparator comparator() {
+		return null;
+	}
+
+	@Override
+	public boolean contains(final long k) {
+		final int idx = Arrays.binarySearch(highs, 0, highCount, high(k));
+		return idx >= 0 && lows[idx].contains(low(k));
+	}
+
+	@Override
+	public long firstLong() {
+		if (size < 1) {
+			throw new NoSuchElementException();
+		}
+		return element(highs[0], lows[0].firstInt());
+	}
+
+	@Override
+	public LongSortedSet headSet(final long to) {
+		return new Subset(0, true, to, false);
+	}
+
+	@Override
+	public LongBidirectionalIterator iterator() {
+		return new SplitIterator(0, true, 0, true).start();
+	}
+
+	@Override
+	public LongBidirectionalIterator iterator(final long from) {
+		return new SplitIterator(0, true, 0, true).seek(from);
+	}
+
+	@Override
+	public long lastLong() {
+		if (size < 1) {
+			throw new NoSuchElementException();
+		}
+		return element(highs[highCount - 1], lows[highCount - 1].lastInt());
+	}
+
+	@Override
+	public boolean remove(final long k) {
+		final int idx = Arrays.binarySearch(highs, 0, highCount, high(k));
+		final boolean result = idx >= 0 && lows[idx].remove(low(k));
+		if (result) {
+			--size;
+			if (lows[idx].isEmpty()) {
+				System.arraycopy(highs, idx + 1, highs, idx, highCount - idx - 1);
+				System.arraycopy(lows, idx + 1, lows, idx, highCount - idx - 1);
+				lows[--highCount] = null;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public LongSortedSet subSet(final long from, final long to) {
+		return new Subset(from, false, to, false);
+	}
+
+	@Override
+	public LongSortedSet tailSet(final long from) {
+		return new Subset(from, false, 0, true);
+	}
+
+}
@@ -0,0 +1,525 @@
+/*
+ * 	Copyright 2016 Todd Shore
+ *
+ *	Licensed under the Apache License, Version 2.0 (the "License");
+ *	you may not use this file except in compliance with the License.
+ *	You may obtain a copy of the License at
+ *
+ *		http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *	Unless required by applicable law or agreed to in writing, software
+ *	distributed under the License is distributed on an "AS IS" BASIS,
+ *	WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *	See the License for the specific language governing permissions and
+ *	limitations under the License.
+ */
+package com.github.errantlinguist.fastutil.ints;
+
+import java.nio.ByteBuffer;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+/**
+ * Utilities for encoding characters as UTF-8 one byte at a time and for
+ * hashing UTF-8 bytes, so that strings stored as UTF-8 bytes can be hashed and
+ * compared with characters without allocating an encoded copy of them, and
+ * for looking them up in a {@link Table hash table} of their indices.
+ *
+ * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+ * @since 2026-10-18
+ */
+final class Utf8Encoding {
+
+	/**
+	 * An open-addressed hash table of the indices of UTF-8-encoded elements
+	 * using linear probing, whose elements are stored one after another and
+	 * are hashed by {@link Utf8Encoding#hash(byte[], int, int)}.
+	 *
+	 * @author <a href="mailto:errantlinguist@gmail.com">Todd Shore</a>
+	 * @since 2026-10-18
+	 */
+	interface Table {
+
+		/**
+		 * @param position
+		 *            The position of a byte of the stored elements.
+		 * @return The byte at the given position.
+		 */
+		byte byteAt(long position);
+
+		/**
+		 * @param index
+		 *            The index of an element.
+		 * @return The position after the last byte of the element.
+		 */
+		long end(int index);
+
+		/**
+		 * @param index
+		 *            The index of an element.
+		 * @return The hash of the element.
+		 */
+		int hash(int index);
+
+		/**
+		 * @param slot
+		 *            A slot of the hash table.
+		 * @return The index of the element in the slot or {@link #EMPTY} if
+		 *         the slot is empty.
+		 */
+		int indexAt(int slot);
+
+		/**
+		 * @return The mask for wrapping slots of the hash table, whose size is
+		 *         a power of two.
+		 */
+		int mask();
+
+		/**
+		 * @param index
+		 *            The index of an element.
+		 * @return The position of the first byte of the element.
+		 */
+		long start(int index);
+	}
+
+	/**
+	 * The value of a hash table slot which does not refer to any element.
+	 */
+	static final int EMPTY = -1;
+
+	private static final int MIN_SUPPLEMENTARY_CODE_POINT = 0x10000;
+
+	/**
+	 * Gets the code point starting at a given index of a {@code char[]}.
+	 *
+	 * @param chars
+	 *            The characters to read.
+	 * @param index
+	 *            The index of the first {@code char} of the code point.
+	 * @param end
+	 *            The index after the last character which may be read.
+	 * @return The code point, or the character itself if it is an unpaired
+	 *         surrogate.
+	 */
+	static int codePoint(final char[] chars, final int index, final int end) {
+		final char high = chars[index];
+		final int result;
+		if (Character.isHighSurrogate(high) && index + 1 < end && Character.isLowSurrogate(chars[index + 1])) {
+			result = Character.toCodePoint(high, chars[index + 1]);
+		} else {
+			result = high;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the code point starting at a given index of a {@link CharSequence}.
+	 *
+	 * @param s
+	 *            The characters to read.
+	 * @param index
+	 *            The index of the first {@code char} of the code point.
+	 * @param end
+	 *            The index after the last character which may be read.
+	 * @return The code point, or the character itself if it is an unpaired
+	 *         surrogate.
+	 */
+	static int codePoint(final CharSequence s, final int index, final int end) {
+		final char high = s.charAt(index);
+		final int result;
+		if (Character.isHighSurrogate(high) && index + 1 < end && Character.isLowSurrogate(s.charAt(index + 1))) {
+			result = Character.toCodePoint(high, s.charAt(index + 1));
+		} else {
+			result = high;
+		}
+		return result;
+	}
+
+	/**
+	 * Encodes a {@link CharSequence} as UTF-8.
+	 *
+	 * @param s
+	 *            The characters to encode.
+	 * @param dest
+	 *            The array to write the bytes to, which must have room for at
+	 *            least three bytes per character.
+	 * @param destOffset
+	 *            The index of {@code dest} to write the first byte to.
+	 * @return The index after the last byte written.
+	 * @throws IllegalArgumentException
+	 *             If the characters contain an unpaired surrogate.
+	 */
+	static int encode(final CharSequence s, final byte[] dest, final int destOffset) {
+		final int length = s.length();
+		int result = destOffset;
+		for (int i = 0; i < length;) {
+			final int codePoint = codePoint(s, i, length);
+			if (codePoint < MIN_SUPPLEMENTARY_CODE_POINT && Character.isSurrogate((char) codePoint)) {
+				throw new IllegalArgumentException(
+						String.format("Unpaired surrogate character at index %d of string.", i));
+			}
+			i += Character.charCount(codePoint);
+			final int byteCount = utf8Length(codePoint);
+			for (int b = 0; b < byteCount; ++b) {
+				dest[result++] = utf8Byte(codePoint, byteCount, b);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the index of the element equal to a range of a
+	 * {@link CharSequence} whose hash has already been computed.
+	 *
+	 * @param table
+	 *            The {@link Table} to look up the characters in.
+	 * @param hash
+	 *            The {@link #hash(CharSequence, int, int) hash} of the
+	 *            characters.
+	 * @param s
+	 *            The sequence containing the characters to look up.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The index of the element or {@link #EMPTY} if the table does not
+	 *         contain it.
+	 */
+	static int find(final Table table, final int hash, final CharSequence s, final int start, final int end) {
+		return find(table, hash, s, start, end, false);
+	}
+
+	/**
+	 * Hashes the UTF-8 bytes of a range of a {@link ByteBuffer}, which is
+	 * equal to {@link #hash(byte[], int, int) the hash of the same bytes in an
+	 * array}; The position of the buffer is not changed.
+	 *
+	 * @param buffer
+	 *            The buffer containing the bytes to hash.
+	 * @param index
+	 *            The absolute index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The hash of the bytes.
+	 */
+	static int hash(final ByteBuffer buffer, final int index, final int length) {
+		int result = 0;
+		for (int i = index; i < index + length; ++i) {
+			result = 31 * result + buffer.get(i);
+		}
+		return result;
+	}
+
+	/**
+	 * Hashes the UTF-8 bytes of a range of a {@code byte[]}.
+	 *
+	 * @param bytes
+	 *            The array containing the bytes to hash.
+	 * @param offset
+	 *            The index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The hash of the bytes.
+	 */
+	static int hash(final byte[] bytes, final int offset, final int length) {
+		int result = 0;
+		for (int i = offset; i < offset + length; ++i) {
+			result = 31 * result + bytes[i];
+		}
+		return result;
+	}
+
+	/**
+	 * Hashes the UTF-8 encoding of a range of a {@code char[]}, which is
+	 * equal to {@link #hash(byte[], int, int) the hash of the encoded bytes}.
+	 *
+	 * @param chars
+	 *            The array containing the characters to hash.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The hash of the encoded characters.
+	 */
+	static int hash(final char[] chars, final int start, final int end) {
+		int result = 0;
+		for (int i = start; i < end;) {
+			final int codePoint = codePoint(chars, i, end);
+			i += Character.charCount(codePoint);
+			final int byteCount = utf8Length(codePoint);
+			for (int b = 0; b < byteCount; ++b) {
+				result = 31 * result + utf8Byte(codePoint, byteCount, b);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Hashes the UTF-8 encoding of a range of a {@link CharSequence}, which is
+	 * equal to {@link #hash(byte[], int, int) the hash of the encoded bytes}.
+	 *
+	 * @param s
+	 *            The sequence containing the characters to hash.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The hash of the encoded characters.
+	 */
+	static int hash(final CharSequence s, final int start, final int end) {
+		int result = 0;
+		for (int i = start; i < end;) {
+			final int codePoint = codePoint(s, i, end);
+			i += Character.charCount(codePoint);
+			final int byteCount = utf8Length(codePoint);
+			for (int b = 0; b < byteCount; ++b) {
+				result = 31 * result + utf8Byte(codePoint, byteCount, b);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Finds the index of the element equal to a range of a {@code char[]}.
+	 *
+	 * @param table
+	 *            The {@link Table} to look up the characters in.
+	 * @param chars
+	 *            The array containing the characters to look up.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The index of the element or {@link #EMPTY} if the table does not
+	 *         contain it.
+	 */
+	static int indexOf(final Table table, final char[] chars, final int start, final int end) {
+		return find(table, hash(chars, start, end), chars, start, end, false);
+	}
+
+	/**
+	 * Finds the index of the element equal to a range of a
+	 * {@link CharSequence}.
+	 *
+	 * @param table
+	 *            The {@link Table} to look up the characters in.
+	 * @param s
+	 *            The sequence containing the characters to look up.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return The index of the element or {@link #EMPTY} if the table does not
+	 *         contain it.
+	 */
+	static int indexOf(final Table table, final CharSequence s, final int start, final int end) {
+		return find(table, hash(s, start, end), s, start, end, false);
+	}
+
+	/**
+	 * Finds the index of the element encoded by a range of UTF-8 bytes in a
+	 * {@code byte[]}.
+	 *
+	 * @param table
+	 *            The {@link Table} to look up the bytes in.
+	 * @param bytes
+	 *            The array containing the bytes to look up.
+	 * @param offset
+	 *            The index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The index of the element or {@link #EMPTY} if the table does not
+	 *         contain it.
+	 */
+	static int indexOfUtf8(final Table table, final byte[] bytes, final int offset, final int length) {
+		return find(table, hash(bytes, offset, length), bytes, offset, offset + length, true);
+	}
+
+	/**
+	 * Finds the index of the element encoded by a range of UTF-8 bytes in a
+	 * {@link ByteBuffer}; The position of the buffer is not changed.
+	 *
+	 * @param table
+	 *            The {@link Table} to look up the bytes in.
+	 * @param buffer
+	 *            The buffer containing the bytes to look up.
+	 * @param index
+	 *            The absolute index of the first byte.
+	 * @param length
+	 *            The number of bytes.
+	 * @return The index of the element or {@link #EMPTY} if the table does not
+	 *         contain it.
+	 */
+	static int indexOfUtf8(final Table table, final ByteBuffer buffer, final int index, final int length) {
+		return find(table, hash(buffer, index, length), buffer, index, index + length, true);
+	}
+
+	/**
+	 * Gets a single byte of the UTF-8 encoding of a code point.
+	 *
+	 * @param codePoint
+	 *            The code point to encode.
+	 * @param byteCount
+	 *            The {@link #utf8Length(int) number of bytes} of the encoded
+	 *            code point.
+	 * @param byteIdx
+	 *            The index of the byte to get.
+	 * @return The byte of the encoded code point.
+	 */
+	static byte utf8Byte(final int codePoint, final int byteCount, final int byteIdx) {
+		final int shift = 6 * (byteCount - 1 - byteIdx);
+		final int result;
+		if (byteIdx > 0) {
+			result = 0x80 | codePoint >> shift & 0x3F;
+		} else if (byteCount == 1) {
+			result = codePoint;
+		} else {
+			// The leading byte has as many leading one bits as there are bytes
+			result = (0xF00 >> byteCount & 0xFF) | codePoint >> shift;
+		}
+		return (byte) result;
+	}
+
+	/**
+	 * @param codePoint
+	 *            A code point.
+	 * @return The number of bytes of the UTF-8 encoding of the code point.
+	 */
+	static int utf8Length(final int codePoint) {
+		final int result;
+		if (codePoint < 0x80) {
+			result = 1;
+		} else if (codePoint < 0x800) {
+			result = 2;
+		} else if (codePoint < MIN_SUPPLEMENTARY_CODE_POINT) {
+			result = 3;
+		} else {
+			result = 4;
+		}
+		return result;
+	}
+
+	/**
+	 * Gets a byte of a {@code byte[]} or {@link ByteBuffer}.
+	 */
+	private static byte byteAt(final Object bytes, final int index) {
+		return bytes instanceof byte[] ? ((byte[]) bytes)[index] : ((ByteBuffer) bytes).get(index);
+	}
+
+	/**
+	 * Gets the code point starting at a given index of a {@code char[]} or
+	 * {@link CharSequence}.
+	 */
+	private static int codePoint(final Object chars, final int index, final int end) {
+		return chars instanceof char[] ? codePoint((char[]) chars, index, end)
+				: codePoint((CharSequence) chars, index, end);
+	}
+
+	/**
+	 * Checks if an element is encoded by a range of UTF-8 bytes.
+	 *
+	 * @param table
+	 *            The {@link Table} containing the element.
+	 * @param index
+	 *            The index of the element.
+	 * @param bytes
+	 *            The {@code byte[]} or {@link ByteBuffer} containing the bytes
+	 *            to compare.
+	 * @param start
+	 *            The index of the first byte.
+	 * @param end
+	 *            The index after the last byte.
+	 * @return {@code true} iff the element bytes are equal to the given bytes.
+	 */
+	private static boolean equalsBytes(final Table table, final int index, final Object bytes, final int start,
+			final int end) {
+		final long elementStart = table.start(index);
+		boolean result = table.end(index) - elementStart == end - start;
+		for (int i = start; result && i < end; ++i) {
+			result = table.byteAt(elementStart + i - start) == byteAt(bytes, i);
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if an element is equal to a range of characters by encoding them
+	 * on the fly.
+	 *
+	 * @param table
+	 *            The {@link Table} containing the element.
+	 * @param index
+	 *            The index of the element.
+	 * @param chars
+	 *            The {@code char[]} or {@link CharSequence} containing the
+	 *            characters to compare.
+	 * @param start
+	 *            The index of the first character.
+	 * @param end
+	 *            The index after the last character.
+	 * @return {@code true} iff the element bytes are the UTF-8 encoding of the
+	 *         given characters.
+	 */
+	private static boolean equalsChars(final Table table, final int index, final Object chars, final int start,
+			final int end) {
+		long bytePos = table.start(index);
+		final long byteEnd = table.end(index);
+		for (int i = start; i < end;) {
+			final int codePoint = codePoint(chars, i, end);
+			i += Character.charCount(codePoint);
+			final int byteCount = utf8Length(codePoint);
+			if (bytePos + byteCount > byteEnd) {
+				return false;
+			}
+			for (int b = 0; b < byteCount; ++b) {
+				if (table.byteAt(bytePos++) != utf8Byte(codePoint, byteCount, b)) {
+					return false;
+				}
+			}
+		}
+		return bytePos == byteEnd;
+	}
+
+	/**
+	 * Probes a {@link Table} for the element equal to a range of characters
+	 * or of UTF-8 bytes.
+	 *
+	 * @param table
+	 *            The {@code Table} to probe.
+	 * @param hash
+	 *            The hash of the key.
+	 * @param key
+	 *            The {@code char[]}, {@link CharSequence}, {@code byte[]} or
+	 *            {@link ByteBuffer} containing the key.
+	 * @param start
+	 *            The index of the first character or byte of the key.
+	 * @param end
+	 *            The index after the last character or byte of the key.
+	 * @param isUtf8
+	 *            {@code true} iff the key is a range of UTF-8 bytes rather
+	 *            than of characters.
+	 * @return The index of the element or {@link #EMPTY} if the table does not
+	 *         contain it.
+	 */
+	private static int find(final Table table, final int hash, final Object key, final int start, final int end,
+			final boolean isUtf8) {
+		final int mask = table.mask();
+		int result = EMPTY;
+		// Probing stops after visiting each slot once even if a corrupt table
+		// has no empty slot
+		for (int slot = HashCommon.mix(hash) & mask, probeCount = 0, index; probeCount <= mask
+				&& (index = table.indexAt(slot)) != EMPTY; slot = slot + 1 & mask, ++probeCount) {
+			if (table.hash(index) == hash && (isUtf8 ? equalsBytes(table, index, key, start, end)
+					: equalsChars(table, index, key, start, end))) {
+				result = index;
+				break;
+			}
+		}
+		return result;
+	}
+
+	private Utf8Encoding() {
+		// Avoid instantiation
+	}
+
+}